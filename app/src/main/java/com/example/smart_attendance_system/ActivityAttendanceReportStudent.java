@@ -4,18 +4,19 @@ import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -28,14 +29,13 @@ public class ActivityAttendanceReportStudent extends AppCompatActivity {
     private static final String TAG = "StudentAttendanceReport";
 
     private TextView tv_student_info, tv_attendance_summary;
-    private ListView lv_attendance_history;
+    private RecyclerView rv_attendance_history;
     private Button btn_back, btn_refresh;
 
-    private DatabaseReference attendanceSessionsRef, studentsRef;
+    private DatabaseReference studentsRef;
     private String enrollmentNo;
     private String studentBranch, studentYear, studentSection;
     
-    private List<StudentAttendanceRecord> attendanceHistory;
     private StudentAttendanceAdapter adapter;
 
     @Override
@@ -52,16 +52,16 @@ public class ActivityAttendanceReportStudent extends AppCompatActivity {
     private void initializeViews() {
         tv_student_info = findViewById(R.id.tv_student_info);
         tv_attendance_summary = findViewById(R.id.tv_attendance_summary);
-        lv_attendance_history = findViewById(R.id.lv_attendance_history);
+        rv_attendance_history = findViewById(R.id.rv_attendance_history);
         btn_back = findViewById(R.id.btn_back);
         btn_refresh = findViewById(R.id.btn_refresh);
 
-        attendanceSessionsRef = FirebaseDatabase.getInstance().getReference(Constants.ATTENDANCE_REPORT_REF);
         studentsRef = FirebaseDatabase.getInstance().getReference(Constants.STUDENTS_REF);
 
-        attendanceHistory = new ArrayList<>();
-        adapter = new StudentAttendanceAdapter(this, attendanceHistory);
-        lv_attendance_history.setAdapter(adapter);
+        adapter = new StudentAttendanceAdapter();
+        rv_attendance_history.setLayoutManager(new LinearLayoutManager(this));
+        rv_attendance_history.setHasFixedSize(true);
+        rv_attendance_history.setAdapter(adapter);
     }
 
     private void getStudentInfo() {
@@ -88,127 +88,102 @@ public class ActivityAttendanceReportStudent extends AppCompatActivity {
     private void setupClickListeners() {
         btn_back.setOnClickListener(v -> finish());
         
-        btn_refresh.setOnClickListener(v -> {
-            attendanceHistory.clear();
-            adapter.notifyDataSetChanged();
-            loadAttendanceHistory();
-        });
+        btn_refresh.setOnClickListener(v -> loadAttendanceHistory());
     }
 
     private void loadAttendanceHistory() {
         tv_attendance_summary.setText("Loading attendance history...");
 
-        // Load all sessions for student's class
-        attendanceSessionsRef.orderByChild(Constants.SESSION_BRANCH).equalTo(studentBranch)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        attendanceHistory.clear();
-                        
-                        int totalSessions = 0;
-                        int attendedSessions = 0;
-
-                        for (DataSnapshot sessionSnapshot : dataSnapshot.getChildren()) {
-                            String sessionYear = sessionSnapshot.child(Constants.SESSION_YEAR).getValue(String.class);
-                            String sessionSection = sessionSnapshot.child(Constants.SESSION_SECTION).getValue(String.class);
-
-                            // Check if session is for student's class
-                            if (studentYear.equals(sessionYear) && studentSection.equals(sessionSection)) {
-                                String sessionId = sessionSnapshot.getKey();
-                                String subject = sessionSnapshot.child(Constants.SESSION_SUBJECT).getValue(String.class);
-                                String date = sessionSnapshot.child(Constants.SESSION_DATE).getValue(String.class);
-                                String startTime = sessionSnapshot.child(Constants.SESSION_START_TIME).getValue(String.class);
-                                String endTime = sessionSnapshot.child(Constants.SESSION_END_TIME).getValue(String.class);
-                                String status = sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class);
-
-                                // Only count ended sessions for attendance calculation
-                                if (Constants.SESSION_ENDED.equals(status)) {
-                                    totalSessions++;
-                                    
-                                    // Check if student attended this session
-                                    checkStudentAttendance(sessionId, subject, date, startTime, endTime, 
-                                            totalSessions == 1); // Update summary only for the last check
-                                }
-                            }
-                        }
-
-                        if (totalSessions == 0) {
-                            tv_attendance_summary.setText("📊 No completed sessions found for your class");
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error loading sessions: " + error.getMessage());
-                        tv_attendance_summary.setText("❌ Error loading attendance history");
-                        Toast.makeText(ActivityAttendanceReportStudent.this, 
-                                "Error loading sessions: " + error.getMessage(), Toast.LENGTH_LONG).show();
-                    }
-                });
-    }
+        // Two reads in parallel: the class's sessions and this student's whole attendance map
+        Task<DataSnapshot> sessionsTask = DatabaseHelper.getInstance()
+                .getClassSessionsQuery(DatabaseHelper.buildClassKey(studentBranch, studentYear, studentSection))
+                .get();
+        Task<DataSnapshot> attendanceTask = studentsRef.child(enrollmentNo)
+                .child(Constants.STUDENT_ATTENDANCE)
+                .get();
+
+        Tasks.whenAllComplete(sessionsTask, attendanceTask).addOnCompleteListener(this, task -> {
+            if (!sessionsTask.isSuccessful() || !attendanceTask.isSuccessful()) {
+                Exception e = sessionsTask.isSuccessful() ? attendanceTask.getException() : sessionsTask.getException();
+                Log.e(TAG, "Error loading attendance history", e);
+                tv_attendance_summary.setText("❌ Error loading attendance history");
+                Toast.makeText(ActivityAttendanceReportStudent.this,
+                        "Error loading sessions: " + (e != null ? e.getMessage() : "unknown error"),
+                        Toast.LENGTH_LONG).show();
+                return;
+            }
 
-    private void checkStudentAttendance(String sessionId, String subject, String date, 
-                                      String startTime, String endTime, boolean updateSummary) {
-        studentsRef.child(enrollmentNo).child(Constants.STUDENT_ATTENDANCE).child(sessionId)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        String attendanceStatus = Constants.ATTENDANCE_ABSENT;
-                        String markedTime = "Not marked";
-
-                        if (dataSnapshot.exists()) {
-                            String status = dataSnapshot.getValue(String.class);
-                            if (Constants.ATTENDANCE_PRESENT.equals(status)) {
-                                attendanceStatus = Constants.ATTENDANCE_PRESENT;
-                                markedTime = "Marked"; // You might want to store actual time
-                            }
-                        }
-
-                        StudentAttendanceRecord record = new StudentAttendanceRecord(
-                                sessionId,
-                                subject != null ? subject : "Unknown Subject",
-                                date != null ? date : "Unknown Date",
-                                startTime + " - " + endTime,
-                                attendanceStatus,
-                                markedTime
-                        );
-
-                        attendanceHistory.add(record);
-                        
-                        // Sort by date (newest first)
-                        attendanceHistory.sort((r1, r2) -> r2.getDate().compareToIgnoreCase(r1.getDate()));
-                        
-                        adapter.notifyDataSetChanged();
-
-                        if (updateSummary) {
-                            updateAttendanceSummary();
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error checking attendance for session " + sessionId + ": " + error.getMessage());
-                    }
-                });
+            showAttendanceHistory(sessionsTask.getResult(), attendanceTask.getResult());
+        });
     }
 
-    private void updateAttendanceSummary() {
-        int totalSessions = attendanceHistory.size();
-        int attendedSessions = 0;
+    private void showAttendanceHistory(DataSnapshot sessionsSnapshot, DataSnapshot attendanceSnapshot) {
+        List<StudentAttendanceRecord> attendanceHistory = new ArrayList<>();
+
+        // One-row matrix over the completed sessions; the summary is a popcount of the student's bitset
+        AttendanceMatrix matrix = new AttendanceMatrix();
+        int student = matrix.addStudent(enrollmentNo, null);
+
+        for (DataSnapshot sessionSnapshot : sessionsSnapshot.getChildren()) {
+            String status = sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class);
+
+            // Only count ended or expired sessions for attendance calculation
+            if (!StaleSessionSweep.isCompleted(status)) {
+                continue;
+            }
+
+            String sessionId = sessionSnapshot.getKey();
+            String subject = sessionSnapshot.child(Constants.SESSION_SUBJECT).getValue(String.class);
+            String date = sessionSnapshot.child(Constants.SESSION_DATE).getValue(String.class);
+            String startTime = sessionSnapshot.child(Constants.SESSION_START_TIME).getValue(String.class);
+            String endTime = sessionSnapshot.child(Constants.SESSION_END_TIME).getValue(String.class);
+            Long createdAt = sessionSnapshot.child(Constants.SESSION_CREATED_AT).getValue(Long.class);
 
-        for (StudentAttendanceRecord record : attendanceHistory) {
-            if (Constants.ATTENDANCE_PRESENT.equals(record.getStatus())) {
-                attendedSessions++;
+            String attendanceStatus = Constants.ATTENDANCE_ABSENT;
+            String markedTime = "Not marked";
+
+            String markedStatus = attendanceSnapshot.child(sessionId).getValue(String.class);
+            if (Constants.ATTENDANCE_PRESENT.equals(markedStatus)) {
+                attendanceStatus = Constants.ATTENDANCE_PRESENT;
+                markedTime = "Marked"; // You might want to store actual time
             }
+            matrix.setPresent(student, matrix.addSession(sessionId, subject),
+                    Constants.ATTENDANCE_PRESENT.equals(attendanceStatus));
+
+            attendanceHistory.add(new StudentAttendanceRecord(
+                    sessionId,
+                    subject != null ? subject : "Unknown Subject",
+                    date != null ? date : "Unknown Date",
+                    startTime + " - " + endTime,
+                    attendanceStatus,
+                    markedTime,
+                    createdAt != null ? createdAt : 0L
+            ));
         }
 
-        double percentage = totalSessions > 0 ? (attendedSessions * 100.0 / totalSessions) : 0.0;
+        // Sort once, newest first
+        attendanceHistory.sort((r1, r2) -> Long.compare(r2.getCreatedAt(), r1.getCreatedAt()));
+        adapter.submitList(attendanceHistory);
+
+        if (attendanceHistory.isEmpty()) {
+            tv_attendance_summary.setText("📊 No completed sessions found for your class");
+        } else {
+            updateAttendanceSummary(matrix, student);
+        }
+    }
+
+    private void updateAttendanceSummary(AttendanceMatrix matrix, int student) {
+        int totalSessions = matrix.getSessionCount();
+        int attendedSessions = matrix.getPresentCount(student);
+        double percentage = matrix.getPercentage(student);
+        boolean belowThreshold = matrix.getDefaulters(Constants.DEFAULTER_THRESHOLD_PERCENT).length > 0;
 
         String summary = "📊 My Attendance Summary\n\n" +
                 "Total Sessions: " + totalSessions + "\n" +
                 "Attended: " + attendedSessions + " ✅\n" +
                 "Missed: " + (totalSessions - attendedSessions) + " ❌\n" +
-                "Attendance: " + String.format("%.1f%%", percentage);
+                "Attendance: " + String.format("%.1f%%", percentage) +
+                (belowThreshold ? "\n⚠️ Below the required " + Constants.DEFAULTER_THRESHOLD_PERCENT + "%" : "");
 
         tv_attendance_summary.setText(summary);
     }
@@ -221,15 +196,17 @@ public class ActivityAttendanceReportStudent extends AppCompatActivity {
         private String time;
         private String status;
         private String markedTime;
+        private long createdAt;
 
         public StudentAttendanceRecord(String sessionId, String subject, String date, 
-                                     String time, String status, String markedTime) {
+                                     String time, String status, String markedTime, long createdAt) {
             this.sessionId = sessionId;
             this.subject = subject;
             this.date = date;
             this.time = time;
             this.status = status;
             this.markedTime = markedTime;
+            this.createdAt = createdAt;
         }
 
         // Getters
@@ -239,5 +216,6 @@ public class ActivityAttendanceReportStudent extends AppCompatActivity {
         public String getTime() { return time; }
         public String getStatus() { return status; }
         public String getMarkedTime() { return markedTime; }
+        public long getCreatedAt() { return createdAt; }
     }
 }
\ No newline at end of file
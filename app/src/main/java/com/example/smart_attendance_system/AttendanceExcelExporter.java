@@ -0,0 +1,205 @@
+package com.example.smart_attendance_system;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes attendance reports as .xlsx with POI's streaming SXSSF workbook. Only ROW_WINDOW rows
+ * are held in memory; older rows are flushed to a temp file, so memory stays flat however many
+ * students are exported. Pure Java so it runs in JVM tests.
+ */
+public class AttendanceExcelExporter {
+
+    /** Rows kept in memory before SXSSF flushes them to disk */
+    public static final int ROW_WINDOW = 100;
+
+    private static final String PRESENT_MARK = "P";
+    private static final String ABSENT_MARK = "A";
+
+    /**
+     * One student's line in a single-session report
+     */
+    public static final class SessionRow {
+        public final String enrollmentNo;
+        public final String studentName;
+        public final String email;
+        public final String status;
+        public final String markedTime;
+
+        public SessionRow(String enrollmentNo, String studentName, String email, String status, String markedTime) {
+            this.enrollmentNo = enrollmentNo;
+            this.studentName = studentName;
+            this.email = email;
+            this.status = status;
+            this.markedTime = markedTime;
+        }
+    }
+
+    /**
+     * Random access to a students x sessions grid, read one row at a time while exporting
+     */
+    public interface SemesterSource {
+        int getStudentCount();
+
+        String getEnrollmentNo(int student);
+
+        String getStudentName(int student);
+
+        int getSessionCount();
+
+        String getSessionLabel(int session);
+
+        boolean isPresent(int student, int session);
+    }
+
+    private AttendanceExcelExporter() {
+    }
+
+    /**
+     * One session: a title line, then enrollment, name, email, status and time per student
+     */
+    public static void exportSession(String title, Iterable<SessionRow> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = newWorkbook();
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Session");
+            CellStyle headerStyle = headerStyle(workbook);
+
+            setCell(sheet.createRow(0), 0, title, headerStyle);
+            writeHeader(sheet.createRow(1), headerStyle,
+                    "Enrollment No", "Student Name", "Email", "Status", "Time Marked");
+
+            int rowIndex = 2;
+            int present = 0;
+            int total = 0;
+            for (SessionRow record : rows) {
+                Row row = sheet.createRow(rowIndex++);
+                setCell(row, 0, record.enrollmentNo, null);
+                setCell(row, 1, record.studentName, null);
+                setCell(row, 2, record.email, null);
+                setCell(row, 3, record.status, null);
+                setCell(row, 4, record.markedTime, null);
+
+                total++;
+                if (Constants.ATTENDANCE_PRESENT.equals(record.status)) {
+                    present++;
+                }
+            }
+
+            Row summary = sheet.createRow(rowIndex + 1);
+            setCell(summary, 0, "Present", headerStyle);
+            summary.createCell(1).setCellValue(present);
+            setCell(summary, 2, "Total", headerStyle);
+            summary.createCell(3).setCellValue(total);
+
+            setColumnWidths(sheet, 16, 28, 32, 10, 12);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Semester matrix: one row per student, one P/A column per session, then attended, total and percentage
+     */
+    public static void exportSemester(String title, SemesterSource source, OutputStream out) throws IOException {
+        exportSemester(title, source, out, newWorkbook());
+    }
+
+    // Writes into the given workbook, so tests can watch its row window; disposes it when done
+    static void exportSemester(String title, SemesterSource source, OutputStream out, SXSSFWorkbook workbook)
+            throws IOException {
+        int sessionCount = source.getSessionCount();
+        int firstSessionColumn = 2;
+        int attendedColumn = firstSessionColumn + sessionCount;
+
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Semester");
+            CellStyle headerStyle = headerStyle(workbook);
+
+            setCell(sheet.createRow(0), 0, title, headerStyle);
+
+            Row header = sheet.createRow(1);
+            setCell(header, 0, "Enrollment No", headerStyle);
+            setCell(header, 1, "Student Name", headerStyle);
+            for (int session = 0; session < sessionCount; session++) {
+                setCell(header, firstSessionColumn + session, source.getSessionLabel(session), headerStyle);
+            }
+            setCell(header, attendedColumn, "Attended", headerStyle);
+            setCell(header, attendedColumn + 1, "Total", headerStyle);
+            setCell(header, attendedColumn + 2, "Attendance %", headerStyle);
+
+            int studentCount = source.getStudentCount();
+            for (int student = 0; student < studentCount; student++) {
+                Row row = sheet.createRow(student + 2);
+                setCell(row, 0, source.getEnrollmentNo(student), null);
+                setCell(row, 1, source.getStudentName(student), null);
+
+                int attended = 0;
+                for (int session = 0; session < sessionCount; session++) {
+                    boolean present = source.isPresent(student, session);
+                    row.createCell(firstSessionColumn + session).setCellValue(present ? PRESENT_MARK : ABSENT_MARK);
+                    if (present) {
+                        attended++;
+                    }
+                }
+
+                row.createCell(attendedColumn).setCellValue(attended);
+                row.createCell(attendedColumn + 1).setCellValue(sessionCount);
+                row.createCell(attendedColumn + 2).setCellValue(
+                        sessionCount > 0 ? Math.round(attended * 1000.0 / sessionCount) / 10.0 : 0.0);
+            }
+
+            sheet.createFreezePane(firstSessionColumn, 2);
+            sheet.setColumnWidth(0, 16 * 256);
+            sheet.setColumnWidth(1, 28 * 256);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    static SXSSFWorkbook newWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    // One shared style; a style per cell would grow the workbook with the row count
+    private static CellStyle headerStyle(SXSSFWorkbook workbook) {
+        Font font = workbook.createFont();
+        font.setBold(true);
+        CellStyle style = workbook.createCellStyle();
+        style.setFont(font);
+        return style;
+    }
+
+    private static void writeHeader(Row row, CellStyle style, String... titles) {
+        for (int i = 0; i < titles.length; i++) {
+            setCell(row, i, titles[i], style);
+        }
+    }
+
+    private static void setCell(Row row, int column, String value, CellStyle style) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value != null ? value : "");
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+    }
+
+    // Fixed widths: autoSizeColumn needs AWT font metrics, which Android does not have
+    private static void setColumnWidths(SXSSFSheet sheet, int... widthsInChars) {
+        for (int i = 0; i < widthsInChars.length; i++) {
+            sheet.setColumnWidth(i, widthsInChars[i] * 256);
+        }
+    }
+}
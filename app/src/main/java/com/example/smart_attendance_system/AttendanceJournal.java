@@ -0,0 +1,179 @@
+package com.example.smart_attendance_system;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only on-device journal of attendance marks waiting to be synced.
+ * append() returns once the line is fsync'd, so a mark survives process death and reboots.
+ * Entries are keyed by enrollment + session, so replaying them remotely is idempotent.
+ */
+public class AttendanceJournal {
+
+    private static final String SEPARATOR = "\t";
+    private static final int FIELD_COUNT = 5;
+
+    /**
+     * One pending attendance mark
+     */
+    public static final class Entry {
+        public final String enrollmentNo;
+        public final String sessionId;
+        public final String status;
+        public final long markedAt;
+        public final String studentName;
+
+        public Entry(String enrollmentNo, String sessionId, String status, long markedAt, String studentName) {
+            this.enrollmentNo = enrollmentNo;
+            this.sessionId = sessionId;
+            this.status = status;
+            this.markedAt = markedAt;
+            this.studentName = studentName;
+        }
+
+        public String getKey() {
+            return enrollmentNo + "/" + sessionId;
+        }
+
+        String toLine() {
+            return markedAt + SEPARATOR + clean(enrollmentNo) + SEPARATOR + clean(sessionId) + SEPARATOR
+                    + clean(status) + SEPARATOR + (studentName != null ? clean(studentName) : "");
+        }
+
+        static Entry fromLine(String line) {
+            String[] fields = line.split(SEPARATOR, -1);
+            if (fields.length != FIELD_COUNT) {
+                return null;
+            }
+            try {
+                return new Entry(fields[1], fields[2], fields[3], Long.parseLong(fields[0]),
+                        fields[4].isEmpty() ? null : fields[4]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String clean(String value) {
+            return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+    }
+
+    private final File file;
+
+    public AttendanceJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Durably record a mark; returns after the data has reached storage
+     */
+    public synchronized void append(Entry entry) throws IOException {
+        if (entry == null || entry.enrollmentNo == null || entry.sessionId == null || entry.status == null) {
+            throw new IllegalArgumentException("Enrollment, session and status are required");
+        }
+
+        // Terminate a torn line left by a crash so it cannot swallow this entry
+        String line = endsWithNewline() ? entry.toLine() + "\n" : "\n" + entry.toLine() + "\n";
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Latest entry per enrollment/session still waiting to be synced, oldest first
+     */
+    public synchronized List<Entry> readPending() throws IOException {
+        return new ArrayList<>(readLatest().values());
+    }
+
+    /**
+     * Pending entry for one student and session, or null
+     */
+    public synchronized Entry findPending(String enrollmentNo, String sessionId) throws IOException {
+        return readLatest().get(enrollmentNo + "/" + sessionId);
+    }
+
+    /**
+     * Drop synced entries. An entry re-marked after it was read for syncing is kept.
+     */
+    public synchronized void acknowledge(Collection<Entry> synced) throws IOException {
+        Map<String, Entry> pending = readLatest();
+        for (Entry entry : synced) {
+            Entry current = pending.get(entry.getKey());
+            if (current != null && current.markedAt == entry.markedAt && current.status.equals(entry.status)) {
+                pending.remove(entry.getKey());
+            }
+        }
+        rewrite(pending.values());
+    }
+
+    private Map<String, Entry> readLatest() throws IOException {
+        Map<String, Entry> latest = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return latest;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // A torn final line from a crash mid-append fails to parse and is skipped
+                Entry entry = Entry.fromLine(line);
+                if (entry != null) {
+                    latest.remove(entry.getKey());
+                    latest.put(entry.getKey(), entry);
+                }
+            }
+        }
+        return latest;
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return true;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    private void rewrite(Collection<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not clear journal " + file);
+            }
+            return;
+        }
+
+        // Write a compacted copy and swap it in so a crash leaves either the old or new journal
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp, false);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                writer.write(entry.toLine());
+                writer.write("\n");
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace journal " + file);
+        }
+    }
+}
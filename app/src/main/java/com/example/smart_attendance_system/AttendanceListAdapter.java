@@ -1,81 +1,87 @@
 package com.example.smart_attendance_system;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseAdapter;
 import android.widget.TextView;
 
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.core.util.ObjectsCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class AttendanceListAdapter extends BaseAdapter {
-    
-    private Context context;
-    private List<AttendanceReportActivity.AttendanceRecord> attendanceRecords;
-    private LayoutInflater inflater;
+/**
+ * Session roster rows. Submitted lists are diffed off the main thread, so a live update only
+ * rebinds the students whose status changed.
+ */
+public class AttendanceListAdapter extends ListAdapter<AttendanceReportActivity.AttendanceRecord, AttendanceListAdapter.ViewHolder> {
 
-    public AttendanceListAdapter(Context context, List<AttendanceReportActivity.AttendanceRecord> attendanceRecords) {
-        this.context = context;
-        this.attendanceRecords = attendanceRecords;
-        this.inflater = LayoutInflater.from(context);
-    }
+    private static final DiffUtil.ItemCallback<AttendanceReportActivity.AttendanceRecord> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<AttendanceReportActivity.AttendanceRecord>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull AttendanceReportActivity.AttendanceRecord oldItem,
+                                               @NonNull AttendanceReportActivity.AttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getEnrollmentNo(), newItem.getEnrollmentNo());
+                }
 
-    @Override
-    public int getCount() {
-        return attendanceRecords.size();
+                @Override
+                public boolean areContentsTheSame(@NonNull AttendanceReportActivity.AttendanceRecord oldItem,
+                                                  @NonNull AttendanceReportActivity.AttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getStudentName(), newItem.getStudentName())
+                            && ObjectsCompat.equals(oldItem.getStatus(), newItem.getStatus())
+                            && ObjectsCompat.equals(oldItem.getMarkedTime(), newItem.getMarkedTime());
+                }
+            };
+
+    public AttendanceListAdapter() {
+        super(ListDiffing.config(DIFF_CALLBACK));
+        setHasStableIds(true);
     }
 
     @Override
-    public Object getItem(int position) {
-        return attendanceRecords.get(position);
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getEnrollmentNo());
     }
 
+    @NonNull
     @Override
-    public long getItemId(int position) {
-        return position;
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_attendance_record, parent, false);
+        return new ViewHolder(view);
     }
 
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ViewHolder holder;
-        
-        if (convertView == null) {
-            convertView = inflater.inflate(R.layout.item_attendance_record, parent, false);
-            holder = new ViewHolder();
-            holder.tv_student_name = convertView.findViewById(R.id.tv_student_name);
-            holder.tv_enrollment_no = convertView.findViewById(R.id.tv_enrollment_no);
-            holder.tv_status = convertView.findViewById(R.id.tv_status);
-            holder.tv_marked_time = convertView.findViewById(R.id.tv_marked_time);
-            convertView.setTag(holder);
-        } else {
-            holder = (ViewHolder) convertView.getTag();
-        }
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        AttendanceReportActivity.AttendanceRecord record = getItem(position);
 
-        AttendanceReportActivity.AttendanceRecord record = attendanceRecords.get(position);
-        
         holder.tv_student_name.setText(record.getStudentName());
         holder.tv_enrollment_no.setText(record.getEnrollmentNo());
         holder.tv_marked_time.setText(record.getMarkedTime());
-        
+
         // Set status with appropriate styling
         if (Constants.ATTENDANCE_PRESENT.equals(record.getStatus())) {
             holder.tv_status.setText("✅ Present");
-            holder.tv_status.setTextColor(context.getResources().getColor(android.R.color.holo_green_dark));
-            convertView.setBackgroundColor(context.getResources().getColor(android.R.color.background_light));
+            holder.tv_status.setTextColor(holder.itemView.getResources().getColor(android.R.color.holo_green_dark));
         } else {
             holder.tv_status.setText("❌ Absent");
-            holder.tv_status.setTextColor(context.getResources().getColor(android.R.color.holo_red_dark));
-            convertView.setBackgroundColor(context.getResources().getColor(android.R.color.background_light));
+            holder.tv_status.setTextColor(holder.itemView.getResources().getColor(android.R.color.holo_red_dark));
         }
-
-        return convertView;
+        holder.itemView.setBackgroundColor(holder.itemView.getResources().getColor(android.R.color.background_light));
     }
 
-    private static class ViewHolder {
-        TextView tv_student_name;
-        TextView tv_enrollment_no;
-        TextView tv_status;
-        TextView tv_marked_time;
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tv_student_name;
+        final TextView tv_enrollment_no;
+        final TextView tv_status;
+        final TextView tv_marked_time;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            tv_student_name = itemView.findViewById(R.id.tv_student_name);
+            tv_enrollment_no = itemView.findViewById(R.id.tv_enrollment_no);
+            tv_status = itemView.findViewById(R.id.tv_status);
+            tv_marked_time = itemView.findViewById(R.id.tv_marked_time);
+        }
     }
-}
\ No newline at end of file
+}
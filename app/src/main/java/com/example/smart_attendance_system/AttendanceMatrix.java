@@ -0,0 +1,213 @@
+package com.example.smart_attendance_system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Students x sessions attendance for a class or semester. Enrollment numbers and session ids are
+ * mapped to dense ordinals in insertion order, and each student's presence is one long[] bitset
+ * indexed by session ordinal, so per-student totals are a popcount over a few words.
+ * Per-session headcounts are kept up to date as marks are set.
+ * Build it on one thread, then read it from any.
+ */
+public class AttendanceMatrix implements AttendanceExcelExporter.SemesterSource {
+
+    private final Map<String, Integer> studentOrdinals = new HashMap<>();
+    private final Map<String, Integer> sessionOrdinals = new HashMap<>();
+    private final List<String> enrollmentNos = new ArrayList<>();
+    private final List<String> studentNames = new ArrayList<>();
+    private final List<String> sessionIds = new ArrayList<>();
+    private final List<String> sessionLabels = new ArrayList<>();
+
+    private long[][] presence = new long[16][];
+    private int[] headcounts = new int[16];
+
+    /**
+     * Ordinal of the student, adding them if new; a non-null name replaces the stored one
+     */
+    public int addStudent(String enrollmentNo, String studentName) {
+        Integer existing = studentOrdinals.get(enrollmentNo);
+        if (existing != null) {
+            if (studentName != null) {
+                studentNames.set(existing, studentName);
+            }
+            return existing;
+        }
+
+        int ordinal = enrollmentNos.size();
+        if (ordinal == presence.length) {
+            presence = Arrays.copyOf(presence, ordinal * 2);
+        }
+        presence[ordinal] = new long[wordsFor(sessionIds.size())];
+        studentOrdinals.put(enrollmentNo, ordinal);
+        enrollmentNos.add(enrollmentNo);
+        studentNames.add(studentName);
+        return ordinal;
+    }
+
+    /**
+     * Ordinal of the session, adding it if new; sessions should be added in the order they are shown
+     */
+    public int addSession(String sessionId, String label) {
+        Integer existing = sessionOrdinals.get(sessionId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int ordinal = sessionIds.size();
+        if (ordinal == headcounts.length) {
+            headcounts = Arrays.copyOf(headcounts, ordinal * 2);
+        }
+        sessionOrdinals.put(sessionId, ordinal);
+        sessionIds.add(sessionId);
+        sessionLabels.add(label != null ? label : sessionId);
+        return ordinal;
+    }
+
+    /**
+     * Record a mark; both ordinals must come from addStudent/addSession
+     */
+    public void setPresent(int student, int session, boolean present) {
+        checkStudent(student);
+        if (session < 0 || session >= sessionIds.size()) {
+            throw new IndexOutOfBoundsException("Unknown session ordinal: " + session);
+        }
+
+        long[] row = presence[student];
+        int word = session >>> 6;
+        if (word >= row.length) {
+            // Rows are sized when the student is added and grow as later sessions are marked
+            row = Arrays.copyOf(row, wordsFor(sessionIds.size()));
+            presence[student] = row;
+        }
+
+        long bit = 1L << session;
+        boolean wasPresent = (row[word] & bit) != 0;
+        if (present && !wasPresent) {
+            row[word] |= bit;
+            headcounts[session]++;
+        } else if (!present && wasPresent) {
+            row[word] &= ~bit;
+            headcounts[session]--;
+        }
+    }
+
+    /**
+     * Record a mark by id, adding the student or session if needed
+     */
+    public void setPresent(String enrollmentNo, String sessionId, boolean present) {
+        setPresent(addStudent(enrollmentNo, null), addSession(sessionId, null), present);
+    }
+
+    @Override
+    public boolean isPresent(int student, int session) {
+        checkStudent(student);
+        long[] row = presence[student];
+        int word = session >>> 6;
+        return word < row.length && (row[word] & (1L << session)) != 0;
+    }
+
+    /**
+     * Ordinal of the student, or -1 if not in the matrix
+     */
+    public int getStudentOrdinal(String enrollmentNo) {
+        Integer ordinal = studentOrdinals.get(enrollmentNo);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Ordinal of the session, or -1 if not in the matrix
+     */
+    public int getSessionOrdinal(String sessionId) {
+        Integer ordinal = sessionOrdinals.get(sessionId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Sessions the student attended
+     */
+    public int getPresentCount(int student) {
+        checkStudent(student);
+        int count = 0;
+        for (long word : presence[student]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Attendance percentage over all sessions in the matrix, 0 when there are none
+     */
+    public double getPercentage(int student) {
+        int sessions = sessionIds.size();
+        return sessions > 0 ? getPresentCount(student) * 100.0 / sessions : 0.0;
+    }
+
+    /**
+     * Students present in the session
+     */
+    public int getHeadcount(int session) {
+        if (session < 0 || session >= sessionIds.size()) {
+            throw new IndexOutOfBoundsException("Unknown session ordinal: " + session);
+        }
+        return headcounts[session];
+    }
+
+    /**
+     * Ordinals of students whose attendance is below thresholdPercent, in ordinal order
+     */
+    public int[] getDefaulters(int thresholdPercent) {
+        long sessions = sessionIds.size();
+        int[] result = new int[enrollmentNos.size()];
+        int count = 0;
+        for (int student = 0; student < enrollmentNos.size(); student++) {
+            // Integer comparison of present/sessions < threshold/100
+            if (getPresentCount(student) * 100L < thresholdPercent * sessions) {
+                result[count++] = student;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Override
+    public int getStudentCount() {
+        return enrollmentNos.size();
+    }
+
+    @Override
+    public String getEnrollmentNo(int student) {
+        return enrollmentNos.get(student);
+    }
+
+    @Override
+    public String getStudentName(int student) {
+        return studentNames.get(student);
+    }
+
+    @Override
+    public int getSessionCount() {
+        return sessionIds.size();
+    }
+
+    public String getSessionId(int session) {
+        return sessionIds.get(session);
+    }
+
+    @Override
+    public String getSessionLabel(int session) {
+        return sessionLabels.get(session);
+    }
+
+    private void checkStudent(int student) {
+        if (student < 0 || student >= enrollmentNos.size()) {
+            throw new IndexOutOfBoundsException("Unknown student ordinal: " + student);
+        }
+    }
+
+    private static int wordsFor(int sessions) {
+        return (sessions + 63) >>> 6;
+    }
+}
@@ -1,16 +1,19 @@
 package com.example.smart_attendance_system;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.FileProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
@@ -18,26 +21,37 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class AttendanceReportActivity extends AppCompatActivity {
 
     private static final String TAG = "AttendanceReport";
+    private static final String EXPORT_DIR = "exports";
+    private static final String XLSX_MIME_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
     private TextView tv_session_info, tv_attendance_summary;
-    private ListView lv_attendance_list;
+    private RecyclerView rv_attendance_list;
     private Button btn_back, btn_refresh, btn_export;
 
-    private DatabaseReference attendanceSessionsRef, studentsRef;
+    private DatabaseReference attendanceSessionsRef;
+    private ValueEventListener sessionListener;
     private String sessionId;
+    private String classKey;
     private boolean isLiveView = false;
     
     private List<AttendanceRecord> attendanceRecords;
     private AttendanceListAdapter adapter;
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,17 +67,18 @@ public class AttendanceReportActivity extends AppCompatActivity {
     private void initializeViews() {
         tv_session_info = findViewById(R.id.tv_session_info);
         tv_attendance_summary = findViewById(R.id.tv_attendance_summary);
-        lv_attendance_list = findViewById(R.id.lv_attendance_list);
+        rv_attendance_list = findViewById(R.id.rv_attendance_list);
         btn_back = findViewById(R.id.btn_back);
         btn_refresh = findViewById(R.id.btn_refresh);
         btn_export = findViewById(R.id.btn_export);
 
         attendanceSessionsRef = FirebaseDatabase.getInstance().getReference(Constants.ATTENDANCE_REPORT_REF);
-        studentsRef = FirebaseDatabase.getInstance().getReference(Constants.STUDENTS_REF);
 
         attendanceRecords = new ArrayList<>();
-        adapter = new AttendanceListAdapter(this, attendanceRecords);
-        lv_attendance_list.setAdapter(adapter);
+        adapter = new AttendanceListAdapter();
+        rv_attendance_list.setLayoutManager(new LinearLayoutManager(this));
+        rv_attendance_list.setHasFixedSize(true);
+        rv_attendance_list.setAdapter(adapter);
     }
 
     private void getIntentData() {
@@ -90,21 +105,22 @@ public class AttendanceReportActivity extends AppCompatActivity {
     private void setupClickListeners() {
         btn_back.setOnClickListener(v -> finish());
         
-        btn_refresh.setOnClickListener(v -> {
-            attendanceRecords.clear();
-            adapter.notifyDataSetChanged();
-            loadAttendanceReport();
-        });
+        btn_refresh.setOnClickListener(v -> loadAttendanceReport());
         
         btn_export.setOnClickListener(v -> exportReport());
+        btn_export.setOnLongClickListener(v -> {
+            exportSemesterReport();
+            return true;
+        });
     }
 
     private void loadAttendanceReport() {
         tv_session_info.setText("Loading session information...");
         tv_attendance_summary.setText("Loading attendance data...");
 
-        // Load session information
-        attendanceSessionsRef.child(sessionId).addListenerForSingleValueEvent(new ValueEventListener() {
+        // The live view keeps listening so check-ins stream in; each update only rebinds changed rows
+        detachSessionListener();
+        sessionListener = new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
                 if (dataSnapshot.exists()) {
@@ -124,7 +140,19 @@ public class AttendanceReportActivity extends AppCompatActivity {
                 Toast.makeText(AttendanceReportActivity.this, 
                         "Error loading session: " + error.getMessage(), Toast.LENGTH_LONG).show();
             }
-        });
+        };
+        if (isLiveView) {
+            attendanceSessionsRef.child(sessionId).addValueEventListener(sessionListener);
+        } else {
+            attendanceSessionsRef.child(sessionId).addListenerForSingleValueEvent(sessionListener);
+        }
+    }
+
+    private void detachSessionListener() {
+        if (sessionListener != null) {
+            attendanceSessionsRef.child(sessionId).removeEventListener(sessionListener);
+            sessionListener = null;
+        }
     }
 
     private void displaySessionInfo(DataSnapshot sessionSnapshot) {
@@ -136,6 +164,7 @@ public class AttendanceReportActivity extends AppCompatActivity {
         String startTime = sessionSnapshot.child(Constants.SESSION_START_TIME).getValue(String.class);
         String endTime = sessionSnapshot.child(Constants.SESSION_END_TIME).getValue(String.class);
         String status = sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class);
+        classKey = sessionSnapshot.child(Constants.SESSION_CLASS_KEY).getValue(String.class);
 
         String sessionInfo = "📚 Session Information\n\n" +
                 "Subject: " + (subject != null ? subject : "N/A") + "\n" +
@@ -148,83 +177,64 @@ public class AttendanceReportActivity extends AppCompatActivity {
     }
 
     private void loadAttendanceData(DataSnapshot sessionSnapshot) {
-        String branch = sessionSnapshot.child(Constants.SESSION_BRANCH).getValue(String.class);
-        String year = sessionSnapshot.child(Constants.SESSION_YEAR).getValue(String.class);
-        String section = sessionSnapshot.child(Constants.SESSION_SECTION).getValue(String.class);
+        // The roster holds only name/email/status per student, so no face data is downloaded
+        DataSnapshot rosterSnapshot = sessionSnapshot.child(Constants.SESSION_ROSTER);
+
+        // A fresh list per update; the submitted list must not be mutated afterwards
+        List<AttendanceRecord> records = new ArrayList<>();
+
+        int totalStudents = 0;
+        int presentStudents = 0;
 
-        // Load all students for this class
-        studentsRef.orderByChild(Constants.STUDENT_BRANCH).equalTo(branch)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        attendanceRecords.clear();
-                        
-                        int totalStudents = 0;
-                        int presentStudents = 0;
-
-                        for (DataSnapshot studentSnapshot : dataSnapshot.getChildren()) {
-                            String studentYear = studentSnapshot.child(Constants.STUDENT_YEAR).getValue(String.class);
-                            String studentSection = studentSnapshot.child(Constants.STUDENT_SECTION).getValue(String.class);
-
-                            // Check if student belongs to this class
-                            if (year.equals(studentYear) && section.equals(studentSection)) {
-                                totalStudents++;
-
-                                String enrollmentNo = studentSnapshot.getKey();
-                                String studentName = studentSnapshot.child(Constants.STUDENT_NAME).getValue(String.class);
-                                String studentEmail = studentSnapshot.child(Constants.STUDENT_EMAIL).getValue(String.class);
-
-                                // Check attendance status
-                                DataSnapshot attendanceSnapshot = studentSnapshot
-                                        .child(Constants.STUDENT_ATTENDANCE)
-                                        .child(sessionId);
-
-                                String attendanceStatus = Constants.ATTENDANCE_ABSENT;
-                                String markedTime = "Not marked";
-
-                                if (attendanceSnapshot.exists()) {
-                                    String status = attendanceSnapshot.getValue(String.class);
-                                    if (Constants.ATTENDANCE_PRESENT.equals(status)) {
-                                        attendanceStatus = Constants.ATTENDANCE_PRESENT;
-                                        presentStudents++;
-                                        
-                                        // Get marked time (you might want to store this)
-                                        markedTime = getCurrentTime();
-                                    }
-                                }
-
-                                AttendanceRecord record = new AttendanceRecord(
-                                        enrollmentNo,
-                                        studentName != null ? studentName : "Unknown",
-                                        studentEmail != null ? studentEmail : "Unknown",
-                                        attendanceStatus,
-                                        markedTime
-                                );
-
-                                attendanceRecords.add(record);
-                            }
-                        }
-
-                        // Sort records: Present first, then by name
-                        attendanceRecords.sort((r1, r2) -> {
-                            if (r1.getStatus().equals(r2.getStatus())) {
-                                return r1.getStudentName().compareToIgnoreCase(r2.getStudentName());
-                            }
-                            return Constants.ATTENDANCE_PRESENT.equals(r1.getStatus()) ? -1 : 1;
-                        });
-
-                        updateAttendanceSummary(totalStudents, presentStudents);
-                        adapter.notifyDataSetChanged();
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error loading attendance data: " + error.getMessage());
-                        tv_attendance_summary.setText("❌ Error loading attendance data");
-                        Toast.makeText(AttendanceReportActivity.this, 
-                                "Error loading attendance: " + error.getMessage(), Toast.LENGTH_LONG).show();
-                    }
-                });
+        for (DataSnapshot entrySnapshot : rosterSnapshot.getChildren()) {
+            totalStudents++;
+
+            String enrollmentNo = entrySnapshot.getKey();
+            String studentName = entrySnapshot.child(Constants.ROSTER_NAME).getValue(String.class);
+            String studentEmail = entrySnapshot.child(Constants.ROSTER_EMAIL).getValue(String.class);
+            String status = entrySnapshot.child(Constants.ROSTER_STATUS).getValue(String.class);
+
+            String attendanceStatus = Constants.ATTENDANCE_ABSENT;
+            String markedTime = "Not marked";
+
+            if (Constants.ATTENDANCE_PRESENT.equals(status)) {
+                attendanceStatus = Constants.ATTENDANCE_PRESENT;
+                presentStudents++;
+
+                // Server time of the mark, written by the marking transaction
+                Long markedAt = entrySnapshot.child(Constants.ROSTER_MARKED_AT).getValue(Long.class);
+                markedTime = markedAt != null ? formatTime(markedAt) : "Marked";
+            }
+
+            AttendanceRecord record = new AttendanceRecord(
+                    enrollmentNo,
+                    studentName != null ? studentName : "Unknown",
+                    studentEmail != null ? studentEmail : "Unknown",
+                    attendanceStatus,
+                    markedTime
+            );
+
+            records.add(record);
+        }
+
+        // Sort records: Present first, then by name
+        records.sort((r1, r2) -> {
+            if (r1.getStatus().equals(r2.getStatus())) {
+                return r1.getStudentName().compareToIgnoreCase(r2.getStudentName());
+            }
+            return Constants.ATTENDANCE_PRESENT.equals(r1.getStatus()) ? -1 : 1;
+        });
+
+        // Closed sessions carry the final counts written with the absent entries
+        Long finalTotal = sessionSnapshot.child(Constants.SESSION_TOTAL_COUNT).getValue(Long.class);
+        Long finalPresent = sessionSnapshot.child(Constants.SESSION_PRESENT_COUNT).getValue(Long.class);
+        if (finalTotal != null && finalPresent != null) {
+            updateAttendanceSummary(finalTotal.intValue(), finalPresent.intValue());
+        } else {
+            updateAttendanceSummary(totalStudents, presentStudents);
+        }
+        attendanceRecords = records;
+        adapter.submitList(records);
     }
 
     private void updateAttendanceSummary(int total, int present) {
@@ -240,9 +250,9 @@ public class AttendanceReportActivity extends AppCompatActivity {
         tv_attendance_summary.setText(summary);
     }
 
-    private String getCurrentTime() {
+    private String formatTime(long timestamp) {
         SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
-        return timeFormat.format(new Date());
+        return timeFormat.format(new Date(timestamp));
     }
 
     private void exportReport() {
@@ -251,27 +261,97 @@ public class AttendanceReportActivity extends AppCompatActivity {
             return;
         }
 
-        // Create CSV content
-        StringBuilder csvContent = new StringBuilder();
-        csvContent.append("Enrollment No,Student Name,Email,Status,Time Marked\n");
-
+        List<AttendanceExcelExporter.SessionRow> rows = new ArrayList<>(attendanceRecords.size());
         for (AttendanceRecord record : attendanceRecords) {
-            csvContent.append(record.getEnrollmentNo()).append(",")
-                    .append(record.getStudentName()).append(",")
-                    .append(record.getEmail()).append(",")
-                    .append(record.getStatus()).append(",")
-                    .append(record.getMarkedTime()).append("\n");
+            rows.add(new AttendanceExcelExporter.SessionRow(record.getEnrollmentNo(), record.getStudentName(),
+                    record.getEmail(), record.getStatus(), record.getMarkedTime()));
         }
 
-        // Share the CSV content
+        String title = "Attendance Report - " + sessionId;
+        exportToFile("attendance_" + sessionId + ".xlsx", title,
+                out -> AttendanceExcelExporter.exportSession(title, rows, out));
+    }
+
+    /**
+     * Students x sessions sheet for the session's class, across all its ended or expired sessions
+     */
+    private void exportSemesterReport() {
+        if (classKey == null) {
+            Toast.makeText(this, "Class information not available", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        btn_export.setEnabled(false);
+        Toast.makeText(this, "Preparing semester report...", Toast.LENGTH_SHORT).show();
+        DatabaseHelper.getInstance().loadClassAttendanceMatrix(classKey).addOnCompleteListener(this, task -> {
+            if (!task.isSuccessful()) {
+                btn_export.setEnabled(true);
+                Log.e(TAG, "Error loading semester attendance", task.getException());
+                Toast.makeText(this, "Error loading semester attendance", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            AttendanceMatrix matrix = task.getResult();
+            String title = "Semester Attendance - " + classKey;
+            Log.d(TAG, matrix.getDefaulters(Constants.DEFAULTER_THRESHOLD_PERCENT).length + " of "
+                    + matrix.getStudentCount() + " students below " + Constants.DEFAULTER_THRESHOLD_PERCENT + "%");
+            exportToFile("semester_" + classKey + ".xlsx", title,
+                    out -> AttendanceExcelExporter.exportSemester(title, matrix, out));
+        });
+    }
+
+    private interface ExportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // The workbook is streamed to a cache file off the main thread, then shared
+    private void exportToFile(String fileName, String title, ExportWriter writer) {
+        btn_export.setEnabled(false);
+        File exportDir = new File(getCacheDir(), EXPORT_DIR);
+        File exportFile = new File(exportDir, fileName);
+
+        exportExecutor.execute(() -> {
+            boolean exported = false;
+            if (exportDir.isDirectory() || exportDir.mkdirs()) {
+                try (OutputStream out = new FileOutputStream(exportFile)) {
+                    writer.write(out);
+                    exported = true;
+                } catch (IOException e) {
+                    Log.e(TAG, "Error exporting attendance report", e);
+                }
+            }
+
+            boolean success = exported;
+            runOnUiThread(() -> {
+                btn_export.setEnabled(true);
+                if (success) {
+                    shareExport(exportFile, title);
+                } else {
+                    Toast.makeText(this, "Failed to export report", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+    }
+
+    private void shareExport(File exportFile, String title) {
+        Uri uri = FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", exportFile);
+
         Intent shareIntent = new Intent(Intent.ACTION_SEND);
-        shareIntent.setType("text/plain");
-        shareIntent.putExtra(Intent.EXTRA_TEXT, csvContent.toString());
-        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Attendance Report - " + sessionId);
-        
+        shareIntent.setType(XLSX_MIME_TYPE);
+        shareIntent.putExtra(Intent.EXTRA_STREAM, uri);
+        shareIntent.putExtra(Intent.EXTRA_SUBJECT, title);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
         startActivity(Intent.createChooser(shareIntent, "Export Attendance Report"));
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        detachSessionListener();
+        exportExecutor.shutdown();
+    }
+
     // Inner class for attendance record
     public static class AttendanceRecord {
         private String enrollmentNo;
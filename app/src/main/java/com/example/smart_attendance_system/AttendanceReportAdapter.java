@@ -1,70 +1,107 @@
 package com.example.smart_attendance_system;
 
-import android.content.Context;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseAdapter;
 import android.widget.TextView;
-import android.graphics.Color;
 
+import androidx.annotation.NonNull;
+import androidx.core.util.ObjectsCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Enhanced Adapter for displaying attendance records in faculty reports
- * Supports sorting, filtering, and proper status visualization
+ * Supports sorting, filtering, and proper status visualization.
+ * Every change submits a new list that is diffed off the main thread, so only changed rows rebind.
  */
-public class AttendanceReportAdapter extends BaseAdapter {
+public class AttendanceReportAdapter extends ListAdapter<AttendanceReportAdapter.AttendanceRecord, AttendanceReportAdapter.ViewHolder> {
 
     private static final String TAG = "AttendanceReportAdapter";
 
-    private Context context;
+    // Keystrokes closer together than this collapse into one query
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
+    // Index builds and queries run here, one at a time and in order
+    private static final Executor SEARCH_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // Partial rebind that only refreshes the serial number after rows move
+    private static final Object PAYLOAD_SERIAL_NUMBER = new Object();
+
+    private static final DiffUtil.ItemCallback<AttendanceRecord> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<AttendanceRecord>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull AttendanceRecord oldItem, @NonNull AttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getEnrollmentNo(), newItem.getEnrollmentNo());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull AttendanceRecord oldItem, @NonNull AttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getStudentName(), newItem.getStudentName())
+                            && ObjectsCompat.equals(oldItem.getEmail(), newItem.getEmail())
+                            && ObjectsCompat.equals(oldItem.getStatus(), newItem.getStatus())
+                            && ObjectsCompat.equals(oldItem.getMarkedTime(), newItem.getMarkedTime());
+                }
+            };
+
     private List<AttendanceRecord> attendanceRecords;
-    private List<AttendanceRecord> filteredRecords;
-    private LayoutInflater inflater;
+    private String searchQuery;
     private String filterStatus = "ALL"; // ALL, PRESENT, ABSENT
+    private Comparator<AttendanceRecord> sortOrder;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedFilter = this::applyFilter;
+    // Bumped for every query so a slower, older result never replaces a newer one
+    private int filterGeneration;
+
+    // Only touched on SEARCH_EXECUTOR: the index and the record list it was built from
+    private List<AttendanceRecord> indexedRecords;
+    private AttendanceSearchIndex searchIndex;
 
-    public AttendanceReportAdapter(Context context, List<AttendanceRecord> attendanceRecords) {
-        this.context = context;
+    public AttendanceReportAdapter(List<AttendanceRecord> attendanceRecords) {
+        super(ListDiffing.config(DIFF_CALLBACK));
+        setHasStableIds(true);
         this.attendanceRecords = attendanceRecords;
-        this.filteredRecords = attendanceRecords;
-        this.inflater = LayoutInflater.from(context);
+        applyFilter();
     }
 
     @Override
-    public int getCount() {
-        return filteredRecords != null ? filteredRecords.size() : 0;
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getEnrollmentNo());
     }
 
+    @NonNull
     @Override
-    public AttendanceRecord getItem(int position) {
-        return filteredRecords.get(position);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_attendance_record, parent, false);
+        return new ViewHolder(view);
     }
 
     @Override
-    public long getItemId(int position) {
-        return position;
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SERIAL_NUMBER) && payloads.size() == 1) {
+            holder.tv_serial_number.setText(String.valueOf(position + 1));
+            return;
+        }
+        onBindViewHolder(holder, position);
     }
 
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ViewHolder holder;
-
-        if (convertView == null) {
-            convertView = inflater.inflate(R.layout.item_attendance_record, parent, false);
-            holder = new ViewHolder();
-            holder.tv_student_name = convertView.findViewById(R.id.tv_student_name);
-            holder.tv_enrollment_no = convertView.findViewById(R.id.tv_enrollment_no);
-            holder.tv_student_email = convertView.findViewById(R.id.tv_student_email);
-            holder.tv_status = convertView.findViewById(R.id.tv_status);
-            holder.tv_marked_time = convertView.findViewById(R.id.tv_marked_time);
-            holder.tv_serial_number = convertView.findViewById(R.id.tv_serial_number);
-            convertView.setTag(holder);
-        } else {
-            holder = (ViewHolder) convertView.getTag();
-        }
-
-        AttendanceRecord record = filteredRecords.get(position);
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        AttendanceRecord record = getItem(position);
 
         // Set serial number
         holder.tv_serial_number.setText(String.valueOf(position + 1));
@@ -79,14 +116,38 @@ public class AttendanceReportAdapter extends BaseAdapter {
         if (Constants.ATTENDANCE_PRESENT.equals(record.getStatus())) {
             holder.tv_status.setText("✅ Present");
             holder.tv_status.setTextColor(Color.parseColor("#4CAF50")); // Green
-            convertView.setBackgroundColor(Color.parseColor("#E8F5E8")); // Light green background
+            holder.itemView.setBackgroundColor(Color.parseColor("#E8F5E8")); // Light green background
         } else {
             holder.tv_status.setText("❌ Absent");
             holder.tv_status.setTextColor(Color.parseColor("#F44336")); // Red
-            convertView.setBackgroundColor(Color.parseColor("#FFEBEE")); // Light red background
+            holder.itemView.setBackgroundColor(Color.parseColor("#FFEBEE")); // Light red background
+        }
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<AttendanceRecord> previousList,
+                                     @NonNull List<AttendanceRecord> currentList) {
+        // Rows the diff kept but shifted keep their old serial number unless refreshed;
+        // new rows are bound in full anyway, so only runs of shifted rows are notified
+        if (previousList.isEmpty() || currentList.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> previousPositions = new HashMap<>(previousList.size() * 2);
+        for (int i = 0; i < previousList.size(); i++) {
+            previousPositions.put(previousList.get(i).getEnrollmentNo(), i);
         }
 
-        return convertView;
+        int runStart = -1;
+        for (int i = 0; i <= currentList.size(); i++) {
+            Integer previous = i < currentList.size() ? previousPositions.get(currentList.get(i).getEnrollmentNo()) : null;
+            boolean shifted = previous != null && previous != i;
+            if (shifted && runStart < 0) {
+                runStart = i;
+            } else if (!shifted && runStart >= 0) {
+                notifyItemRangeChanged(runStart, i - runStart, PAYLOAD_SERIAL_NUMBER);
+                runStart = -1;
+            }
+        }
     }
 
     /**
@@ -98,90 +159,97 @@ public class AttendanceReportAdapter extends BaseAdapter {
     }
 
     /**
-     * Search records by student name or enrollment number
+     * Search records by student name, enrollment number or email; debounced while typing
      */
     public void searchRecords(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            filteredRecords = attendanceRecords;
-        } else {
-            filteredRecords = new java.util.ArrayList<>();
-            String lowerQuery = query.toLowerCase().trim();
-
-            for (AttendanceRecord record : attendanceRecords) {
-                if (record.getStudentName().toLowerCase().contains(lowerQuery) ||
-                        record.getEnrollmentNo().toLowerCase().contains(lowerQuery) ||
-                        record.getEmail().toLowerCase().contains(lowerQuery)) {
-                    filteredRecords.add(record);
-                }
-            }
-        }
-
-        applyFilter();
-        notifyDataSetChanged();
+        this.searchQuery = query;
+        mainHandler.removeCallbacks(debouncedFilter);
+        mainHandler.postDelayed(debouncedFilter, SEARCH_DEBOUNCE_MS);
     }
 
     /**
-     * Apply status filter to current records
+     * Evaluate search, status filter and sort order off the main thread, then submit the result
      */
     private void applyFilter() {
-        if ("ALL".equals(filterStatus)) {
-            // filteredRecords already set by search
-            return;
-        }
+        mainHandler.removeCallbacks(debouncedFilter);
+        int generation = ++filterGeneration;
+        List<AttendanceRecord> records = attendanceRecords;
+        String query = searchQuery;
+        String status = filterStatus;
+        Comparator<AttendanceRecord> order = sortOrder;
+
+        SEARCH_EXECUTOR.execute(() -> {
+            AttendanceSearchIndex index = getSearchIndex(records);
+
+            // Text match and status filter in one pass over the index
+            int[] matches = index.search(query, "ALL".equals(status) ? null
+                    : ordinal -> status.equalsIgnoreCase(records.get(ordinal).getStatus()));
+
+            List<AttendanceRecord> filtered = new ArrayList<>(matches.length);
+            for (int ordinal : matches) {
+                filtered.add(records.get(ordinal));
+            }
+            if (order != null) {
+                Collections.sort(filtered, order);
+            }
+
+            mainHandler.post(() -> {
+                if (generation == filterGeneration) {
+                    submitList(filtered);
+                }
+            });
+        });
+    }
 
-        List<AttendanceRecord> statusFiltered = new java.util.ArrayList<>();
-        for (AttendanceRecord record : filteredRecords) {
-            if (filterStatus.equals(record.getStatus().toUpperCase())) {
-                statusFiltered.add(record);
+    // Search keys are normalized once per dataset, not per keystroke
+    private AttendanceSearchIndex getSearchIndex(List<AttendanceRecord> records) {
+        if (records != indexedRecords) {
+            AttendanceSearchIndex.Builder builder = new AttendanceSearchIndex.Builder();
+            for (AttendanceRecord record : records) {
+                builder.add(record.getStudentName(), record.getEnrollmentNo(), record.getEmail());
             }
+            searchIndex = builder.build();
+            indexedRecords = records;
         }
-        filteredRecords = statusFiltered;
+        return searchIndex;
     }
 
     /**
      * Sort records by different criteria
      */
     public void sortRecords(SortCriteria criteria) {
-        if (filteredRecords == null || filteredRecords.isEmpty()) {
-            return;
-        }
-
         switch (criteria) {
             case NAME_ASC:
-                filteredRecords.sort((r1, r2) ->
-                        r1.getStudentName().compareToIgnoreCase(r2.getStudentName()));
+                sortOrder = (r1, r2) -> r1.getStudentName().compareToIgnoreCase(r2.getStudentName());
                 break;
             case NAME_DESC:
-                filteredRecords.sort((r1, r2) ->
-                        r2.getStudentName().compareToIgnoreCase(r1.getStudentName()));
+                sortOrder = (r1, r2) -> r2.getStudentName().compareToIgnoreCase(r1.getStudentName());
                 break;
             case ENROLLMENT_ASC:
-                filteredRecords.sort((r1, r2) ->
-                        r1.getEnrollmentNo().compareToIgnoreCase(r2.getEnrollmentNo()));
+                sortOrder = (r1, r2) -> r1.getEnrollmentNo().compareToIgnoreCase(r2.getEnrollmentNo());
                 break;
             case ENROLLMENT_DESC:
-                filteredRecords.sort((r1, r2) ->
-                        r2.getEnrollmentNo().compareToIgnoreCase(r1.getEnrollmentNo()));
+                sortOrder = (r1, r2) -> r2.getEnrollmentNo().compareToIgnoreCase(r1.getEnrollmentNo());
                 break;
             case STATUS_PRESENT_FIRST:
-                filteredRecords.sort((r1, r2) -> {
+                sortOrder = (r1, r2) -> {
                     if (r1.getStatus().equals(r2.getStatus())) {
                         return r1.getStudentName().compareToIgnoreCase(r2.getStudentName());
                     }
                     return Constants.ATTENDANCE_PRESENT.equals(r1.getStatus()) ? -1 : 1;
-                });
+                };
                 break;
             case STATUS_ABSENT_FIRST:
-                filteredRecords.sort((r1, r2) -> {
+                sortOrder = (r1, r2) -> {
                     if (r1.getStatus().equals(r2.getStatus())) {
                         return r1.getStudentName().compareToIgnoreCase(r2.getStudentName());
                     }
                     return Constants.ATTENDANCE_ABSENT.equals(r1.getStatus()) ? -1 : 1;
-                });
+                };
                 break;
         }
 
-        notifyDataSetChanged();
+        applyFilter();
     }
 
     /**
@@ -205,12 +273,12 @@ public class AttendanceReportAdapter extends BaseAdapter {
     }
 
     /**
-     * Update the entire dataset
+     * Update the entire dataset with a new list; only rows that differ from the current list are
+     * rebound, and the search index is rebuilt once for the new list
      */
     public void updateRecords(List<AttendanceRecord> newRecords) {
         this.attendanceRecords = newRecords;
-        this.filteredRecords = newRecords;
-        notifyDataSetChanged();
+        applyFilter();
     }
 
     /**
@@ -218,18 +286,27 @@ public class AttendanceReportAdapter extends BaseAdapter {
      */
     public void clearFilters() {
         this.filterStatus = "ALL";
-        this.filteredRecords = this.attendanceRecords;
-        notifyDataSetChanged();
+        this.searchQuery = null;
+        applyFilter();
     }
 
-    // ViewHolder pattern for better performance
-    private static class ViewHolder {
-        TextView tv_serial_number;
-        TextView tv_student_name;
-        TextView tv_enrollment_no;
-        TextView tv_student_email;
-        TextView tv_status;
-        TextView tv_marked_time;
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tv_serial_number;
+        final TextView tv_student_name;
+        final TextView tv_enrollment_no;
+        final TextView tv_student_email;
+        final TextView tv_status;
+        final TextView tv_marked_time;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            tv_serial_number = itemView.findViewById(R.id.tv_serial_number);
+            tv_student_name = itemView.findViewById(R.id.tv_student_name);
+            tv_enrollment_no = itemView.findViewById(R.id.tv_enrollment_no);
+            tv_student_email = itemView.findViewById(R.id.tv_student_email);
+            tv_status = itemView.findViewById(R.id.tv_status);
+            tv_marked_time = itemView.findViewById(R.id.tv_marked_time);
+        }
     }
 
     // Enum for sorting criteria
@@ -308,7 +385,7 @@ public class AttendanceReportAdapter extends BaseAdapter {
         public String getYear() { return year; }
         public String getSection() { return section; }
 
-        // Setters
+        // Setters; records already submitted to the adapter must be replaced, not mutated, for the diff to see the change
         public void setStatus(String status) { this.status = status; }
         public void setMarkedTime(String markedTime) { this.markedTime = markedTime; }
 
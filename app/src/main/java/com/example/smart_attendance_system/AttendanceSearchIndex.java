@@ -0,0 +1,186 @@
+package com.example.smart_attendance_system;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring search over a fixed set of records (name, enrollment number, email, ...).
+ * Each record's fields are lowercased once into a search key, and every trigram of the keys is
+ * indexed to the ordinals containing it. A query of three or more characters intersects the
+ * postings of its trigrams and confirms the survivors against their keys; shorter queries scan
+ * the precomputed keys. Immutable once built, so it can be queried from any thread.
+ */
+public class AttendanceSearchIndex {
+
+    /**
+     * Extra condition evaluated in the same pass as the text match, e.g. a status filter
+     */
+    public interface Filter {
+        boolean accept(int ordinal);
+    }
+
+    // Separates fields inside a key so a match never spans two fields
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] keys;
+    private final Map<Long, int[]> postings;
+
+    private AttendanceSearchIndex(String[] keys, Map<Long, int[]> postings) {
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Ordinals, ascending, of records with a field containing the query (case-insensitive) that the
+     * filter accepts. A blank query matches every record; filter may be null.
+     */
+    public int[] search(String query, Filter filter) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || needle.length() < 3) {
+            return scan(needle, filter);
+        }
+
+        int[] candidates = intersectTrigrams(needle);
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int ordinal : candidates) {
+            if (keys[ordinal].indexOf(needle) >= 0 && (filter == null || filter.accept(ordinal))) {
+                result[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int[] scan(String needle, Filter filter) {
+        int[] result = new int[keys.length];
+        int count = 0;
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            if ((needle.isEmpty() || keys[ordinal].indexOf(needle) >= 0)
+                    && (filter == null || filter.accept(ordinal))) {
+                result[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int[] intersectTrigrams(String needle) {
+        int trigramCount = needle.length() - 2;
+        int[][] lists = new int[trigramCount][];
+        for (int i = 0; i < trigramCount; i++) {
+            int[] list = postings.get(trigram(needle, i));
+            if (list == null) {
+                return EMPTY;
+            }
+            lists[i] = list;
+        }
+
+        // Start from the rarest trigram; the intersection can only shrink
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] current = lists[0];
+        for (int i = 1; i < lists.length && current.length > 0; i++) {
+            current = intersect(current, lists[i]);
+        }
+        return current;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    static String normalize(String text) {
+        return text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static long trigram(CharSequence text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Collects records in ordinal order, then freezes them into an index
+     */
+    public static class Builder {
+        private String[] keys = new String[64];
+        private int size;
+
+        /**
+         * Add the next record; returns its ordinal. Null fields are skipped.
+         */
+        public int add(String... fields) {
+            StringBuilder key = new StringBuilder();
+            for (String field : fields) {
+                if (field != null) {
+                    if (key.length() > 0) {
+                        key.append(FIELD_SEPARATOR);
+                    }
+                    key.append(normalize(field));
+                }
+            }
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size] = key.toString();
+            return size++;
+        }
+
+        public AttendanceSearchIndex build() {
+            Map<Long, int[]> growing = new HashMap<>();
+            Map<Long, Integer> lengths = new HashMap<>();
+
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                String key = keys[ordinal];
+                for (int i = 0; i + 2 < key.length(); i++) {
+                    if (key.charAt(i) == FIELD_SEPARATOR || key.charAt(i + 1) == FIELD_SEPARATOR
+                            || key.charAt(i + 2) == FIELD_SEPARATOR) {
+                        continue;
+                    }
+
+                    Long gram = trigram(key, i);
+                    int[] list = growing.get(gram);
+                    int length = list != null ? lengths.get(gram) : 0;
+                    // Ordinals arrive in order, so a repeat within one key is always the last entry
+                    if (list != null && list[length - 1] == ordinal) {
+                        continue;
+                    }
+                    if (list == null) {
+                        list = new int[4];
+                        growing.put(gram, list);
+                    } else if (length == list.length) {
+                        list = Arrays.copyOf(list, length * 2);
+                        growing.put(gram, list);
+                    }
+                    list[length] = ordinal;
+                    lengths.put(gram, length + 1);
+                }
+            }
+
+            Map<Long, int[]> postings = new HashMap<>(growing.size() * 2);
+            for (Map.Entry<Long, int[]> entry : growing.entrySet()) {
+                postings.put(entry.getKey(), Arrays.copyOf(entry.getValue(), lengths.get(entry.getKey())));
+            }
+            return new AttendanceSearchIndex(Arrays.copyOf(keys, size), postings);
+        }
+    }
+}
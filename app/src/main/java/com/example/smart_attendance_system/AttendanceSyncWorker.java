@@ -0,0 +1,197 @@
+package com.example.smart_attendance_system;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes marks from the local AttendanceJournal to Firebase: present marks through the conditional
+ * DatabaseHelper.markPresentOnce transaction, started a batch at a time and awaited together,
+ * anything else in batched multi-path writes.
+ * Marks are only dropped from the journal after the server has acknowledged them, or rejected them
+ * for good (e.g. the rules refuse them), so one bad mark never holds back the rest.
+ */
+public class AttendanceSyncWorker extends Worker {
+
+    private static final String TAG = "AttendanceSyncWorker";
+    private static final String WORK_NAME = "attendance_sync";
+    private static final String JOURNAL_FILE = "attendance_journal.log";
+
+    // Each entry is up to four paths, so a batch stays well under the write size limits
+    private static final int BATCH_SIZE = 100;
+    private static final long WRITE_TIMEOUT_SECONDS = 30;
+
+    private static AttendanceJournal journal;
+
+    public AttendanceSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Journal shared by the UI and the worker
+     */
+    public static synchronized AttendanceJournal getJournal(Context context) {
+        if (journal == null) {
+            journal = new AttendanceJournal(new File(context.getApplicationContext().getFilesDir(), JOURNAL_FILE));
+        }
+        return journal;
+    }
+
+    /**
+     * Schedule a sync for when the device is online. Calls while one is queued are coalesced.
+     */
+    public static void enqueue(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(AttendanceSyncWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 10, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        AttendanceJournal journal = getJournal(getApplicationContext());
+
+        // Marks to drop from the journal: synced ones, and ones the server rejected for good
+        List<AttendanceJournal.Entry> done = new ArrayList<>();
+        int rejected = 0;
+        try {
+            List<AttendanceJournal.Entry> pending = journal.readPending();
+            Log.d(TAG, "Syncing " + pending.size() + " journaled attendance marks");
+
+            // Present marks go through the conditional transaction so a replay never re-marks;
+            // anything else is pushed in batched multi-path writes
+            List<AttendanceJournal.Entry> presents = new ArrayList<>();
+            List<AttendanceJournal.Entry> others = new ArrayList<>();
+            for (AttendanceJournal.Entry entry : pending) {
+                if (Constants.ATTENDANCE_PRESENT.equals(entry.status)) {
+                    presents.add(entry);
+                } else {
+                    others.add(entry);
+                }
+            }
+
+            for (int start = 0; start < presents.size(); start += BATCH_SIZE) {
+                rejected += pushPresents(presents.subList(start, Math.min(start + BATCH_SIZE, presents.size())), done);
+            }
+
+            for (int start = 0; start < others.size(); start += BATCH_SIZE) {
+                List<AttendanceJournal.Entry> batch =
+                        others.subList(start, Math.min(start + BATCH_SIZE, others.size()));
+
+                if (!push(() -> DatabaseHelper.getInstance().markAttendanceBatch(batch), "batch of " + batch.size())) {
+                    // A multi-path write fails as a whole; replay one by one to drop only the bad marks
+                    for (AttendanceJournal.Entry entry : batch) {
+                        if (batch.size() == 1 || !push(() -> DatabaseHelper.getInstance().markAttendanceBatch(
+                                Collections.singletonList(entry)), "mark " + entry.getKey())) {
+                            rejected++;
+                        }
+                    }
+                }
+                done.addAll(batch);
+            }
+            journal.acknowledge(done);
+            if (rejected > 0) {
+                Log.w(TAG, "Dropped " + rejected + " attendance marks rejected by the server");
+            }
+            return Result.success();
+        } catch (Exception e) {
+            // Unacknowledged marks stay in the journal and are replayed on the next attempt
+            Log.e(TAG, "Attendance sync failed, will retry", e);
+            try {
+                journal.acknowledge(done);
+            } catch (IOException ioe) {
+                Log.e(TAG, "Could not record synced marks", ioe);
+            }
+            return Result.retry();
+        }
+    }
+
+    // Start the transactions of a batch of present marks together and wait for all of them, so a
+    // backlog costs about one round-trip per batch rather than one per mark. Each transaction only
+    // touches its own roster entry, so they do not contend. Synced and rejected marks are added to
+    // done; returns how many were rejected, or throws the first transient failure once all have settled.
+    private static int pushPresents(List<AttendanceJournal.Entry> batch, List<AttendanceJournal.Entry> done)
+            throws Exception {
+        List<Task<DatabaseHelper.MarkResult>> marks = new ArrayList<>(batch.size());
+        for (AttendanceJournal.Entry entry : batch) {
+            marks.add(DatabaseHelper.getInstance().markPresentOnce(entry.enrollmentNo, entry.studentName, entry.sessionId));
+        }
+        Tasks.await(Tasks.whenAllComplete(marks), WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        int rejected = 0;
+        Exception transientFailure = null;
+        for (int i = 0; i < batch.size(); i++) {
+            AttendanceJournal.Entry entry = batch.get(i);
+            Task<DatabaseHelper.MarkResult> mark = marks.get(i);
+            if (mark.isSuccessful()) {
+                if (mark.getResult() == DatabaseHelper.MarkResult.REJECTED) {
+                    Log.w(TAG, "Dropping mark " + entry.getKey() + ": " + mark.getResult());
+                    rejected++;
+                }
+                done.add(entry);
+            } else if (isPermanent(mark.getException())) {
+                Log.w(TAG, "Server rejected mark " + entry.getKey() + ", dropping it", mark.getException());
+                rejected++;
+                done.add(entry);
+            } else if (transientFailure == null) {
+                transientFailure = mark.getException();
+            }
+        }
+        if (transientFailure != null) {
+            throw transientFailure;
+        }
+        return rejected;
+    }
+
+    private interface Write {
+        Task<?> start();
+    }
+
+    // Await a write: true once the server accepted it, false when it rejected it for good.
+    // Transient failures (offline, timeout) are thrown so the run stops and is retried.
+    private static boolean push(Write write, String description) throws Exception {
+        try {
+            Tasks.await(write.start(), WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            if (isPermanent(e.getCause())) {
+                Log.w(TAG, "Server rejected " + description + ", dropping it", e.getCause());
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isPermanent(Throwable failure) {
+        return failure instanceof DatabaseHelper.WriteFailedException
+                && ((DatabaseHelper.WriteFailedException) failure).isPermanent();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.smart_attendance_system;
+
+/**
+ * Keeps the best-scoring recent frames of a fixed number of slots.
+ * A frame only displaces an expired slot or the lowest-scoring one, so callers can ask
+ * isWorthKeeping() first and skip building frames that would be thrown away.
+ */
+public class BestFrameBuffer<T> {
+
+    private final Object[] frames;
+    private final float[] scores;
+    private final long[] timestamps;
+    private final long windowNanos;
+
+    public BestFrameBuffer(int capacity, long windowNanos) {
+        if (capacity <= 0 || windowNanos <= 0) {
+            throw new IllegalArgumentException("Capacity and window must be positive");
+        }
+        this.frames = new Object[capacity];
+        this.scores = new float[capacity];
+        this.timestamps = new long[capacity];
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Whether a frame with this score, taken at timestampNanos, would be kept by offer()
+     */
+    public synchronized boolean isWorthKeeping(float score, long timestampNanos) {
+        int slot = findSlot(timestampNanos);
+        return frames[slot] == null || score > scores[slot];
+    }
+
+    /**
+     * Keep the frame if there is a free or expired slot, or it beats the lowest-scoring frame
+     */
+    public synchronized boolean offer(T frame, float score, long timestampNanos) {
+        int slot = findSlot(timestampNanos);
+        if (frames[slot] != null && score <= scores[slot]) {
+            return false;
+        }
+        frames[slot] = frame;
+        scores[slot] = score;
+        timestamps[slot] = timestampNanos;
+        return true;
+    }
+
+    /**
+     * Highest-scoring frame taken within the window before nowNanos, or null
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T best(long nowNanos) {
+        int best = -1;
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] != null && !isExpired(i, nowNanos) && (best < 0 || scores[i] > scores[best])) {
+                best = i;
+            }
+        }
+        return best >= 0 ? (T) frames[best] : null;
+    }
+
+    public synchronized int size(long nowNanos) {
+        int size = 0;
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] != null && !isExpired(i, nowNanos)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = null;
+        }
+    }
+
+    // Slot a new frame would take: a free or expired one, else the lowest-scoring frame
+    private int findSlot(long nowNanos) {
+        int lowest = 0;
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] == null || isExpired(i, nowNanos)) {
+                frames[i] = null;
+                return i;
+            }
+            if (scores[i] < scores[lowest]) {
+                lowest = i;
+            }
+        }
+        return lowest;
+    }
+
+    private boolean isExpired(int slot, long nowNanos) {
+        return nowNanos - timestamps[slot] > windowNanos;
+    }
+}
@@ -33,6 +33,7 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.face.Face;
 
 import java.io.ByteArrayOutputStream;
@@ -46,6 +47,13 @@ public class CameraActivity extends AppCompatActivity {
 
     private static final String TAG = "CameraActivity";
     private static final int REQUEST_CAMERA_PERMISSION = 200;
+    private static final int FRAME_STATS_WINDOW = 120;
+    private static final int FRAME_STATS_LOG_INTERVAL = 60;
+
+    // Captured frames handed to the calling activity; only the token crosses Binder
+    private static final int MAX_PENDING_CAPTURES = 2;
+    private static final long CAPTURE_TTL_MILLIS = 5 * 60 * 1000;
+    public static final CaptureStore<Bitmap> CAPTURES = new CaptureStore<>(MAX_PENDING_CAPTURES, CAPTURE_TTL_MILLIS);
     
     private PreviewView previewView;
     private ImageView overlayView;
@@ -61,6 +69,22 @@ public class CameraActivity extends AppCompatActivity {
     private boolean faceDetected = false;
     private boolean isRegistration = false;
     private boolean isAttendance = false;
+    private boolean autoCapture = false;
+    private boolean autoCaptured = false;
+
+    // Most recent analysis frame that passed the quality gate; written from the face work preview lane
+    private volatile Bitmap latestQualifiedFrame;
+    private final FrameTimeTracker zeroCopyFrameTimes = new FrameTimeTracker("zero-copy", FRAME_STATS_WINDOW);
+    private final FrameTimeTracker legacyFrameTimes = new FrameTimeTracker("legacy-jpeg", FRAME_STATS_WINDOW);
+    private final FaceTrackingGate trackingGate = new FaceTrackingGate(
+            Constants.FACE_READY_CONSECUTIVE_FRAMES, Constants.FACE_KEYFRAME_INTERVAL);
+    // Best recent analysis frames of the current good streak, for auto-capture
+    private final BestFrameBuffer<Bitmap> bestFrames = new BestFrameBuffer<>(Constants.AUTO_CAPTURE_CANDIDATES,
+            Constants.AUTO_CAPTURE_WINDOW_MILLIS * 1_000_000L);
+    // Bumped whenever bestFrames is cleared, so conversions still in flight for an older streak are discarded
+    private volatile int candidateStreak;
+    // Status currently on screen, null once another message replaced it; the UI is only touched when it changes
+    private FaceTrackingGate.Status shownStatus;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -101,11 +125,14 @@ public class CameraActivity extends AppCompatActivity {
             isRegistration = intent.getBooleanExtra(Constants.EXTRA_IS_REGISTRATION, false);
             isAttendance = intent.getBooleanExtra(Constants.EXTRA_IS_ATTENDANCE, false);
         }
+        autoCapture = isAttendance && Constants.AUTO_CAPTURE_FOR_ATTENDANCE;
         
         if (isRegistration) {
             instructionText.setText("📸 Face Registration\n\nPosition your face in the center and look directly at the camera");
         } else if (isAttendance) {
-            instructionText.setText("🔐 Face Verification\n\nPosition your face in the center for attendance verification");
+            instructionText.setText(autoCapture
+                    ? "🔐 Face Verification\n\nPosition your face in the center and hold still - it is captured automatically"
+                    : "🔐 Face Verification\n\nPosition your face in the center for attendance verification");
         } else {
             instructionText.setText("📷 Face Capture\n\nPosition your face in the center of the frame");
         }
@@ -116,6 +143,8 @@ public class CameraActivity extends AppCompatActivity {
         
         switchCameraButton.setOnClickListener(v -> {
             isBackCamera = !isBackCamera;
+            trackingGate.reset();
+            clearAutoCaptureCandidates();
             startCamera();
         });
         
@@ -173,6 +202,7 @@ public class CameraActivity extends AppCompatActivity {
         try {
             // Bind use cases to camera
             cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture, imageAnalysis);
+            shownStatus = null;
             statusText.setText("Camera ready - Position your face in the frame");
         } catch (Exception e) {
             Log.e(TAG, "Error binding camera use cases", e);
@@ -182,66 +212,270 @@ public class CameraActivity extends AppCompatActivity {
     }
 
     private void analyzeImage(ImageProxy imageProxy) {
+        // Skip frames the detector has no budget for; closing the proxy lets the next one in
+        if (!trackingGate.shouldAnalyze(System.nanoTime())) {
+            imageProxy.close();
+            return;
+        }
+
+        if (Constants.ZERO_COPY_FRAME_ANALYSIS) {
+            analyzeImageZeroCopy(imageProxy);
+        } else {
+            analyzeImageLegacy(imageProxy);
+        }
+    }
+
+    /**
+     * Hands the YUV planes straight to ML Kit. The proxy stays open until detection finishes,
+     * so STRATEGY_KEEP_ONLY_LATEST drops frames instead of queueing them behind the detector.
+     */
+    private void analyzeImageZeroCopy(ImageProxy imageProxy) {
         @SuppressWarnings("UnsafeOptInUsageError")
         Image mediaImage = imageProxy.getImage();
-        
+
+        if (mediaImage == null) {
+            imageProxy.close();
+            return;
+        }
+
+        long frameStartNanos = System.nanoTime();
+        int rotationDegrees = imageProxy.getImageInfo().getRotationDegrees();
+        InputImage inputImage = InputImage.fromMediaImage(mediaImage, rotationDegrees);
+
+        FaceRecognitionUtils.detectFaces(inputImage, FaceDetectorRegistry.Profile.PREVIEW,
+                createFrameCallback(imageProxy, rotationDegrees, zeroCopyFrameTimes, frameStartNanos));
+    }
+
+    private void analyzeImageLegacy(ImageProxy imageProxy) {
+        @SuppressWarnings("UnsafeOptInUsageError")
+        Image mediaImage = imageProxy.getImage();
+        long frameStartNanos = System.nanoTime();
+
         if (mediaImage != null) {
             // Convert ImageProxy to Bitmap
             Bitmap bitmap = imageProxyToBitmap(imageProxy);
             
             if (bitmap != null) {
                 // Detect faces
-                FaceRecognitionUtils.detectFaces(bitmap, new FaceRecognitionUtils.FaceDetectionCallback() {
-                    @Override
-                    public void onFaceDetected(List<Face> faces, Bitmap processedBitmap) {
-                        runOnUiThread(() -> {
-                            if (faces.size() == 1) {
-                                Face face = faces.get(0);
-                                if (FaceRecognitionUtils.isFaceQualityGood(face)) {
-                                    faceDetected = true;
-                                    captureButton.setEnabled(true);
-                                    statusText.setText("✅ Face detected - Ready to capture!");
-                                    statusText.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
-                                } else {
-                                    faceDetected = false;
-                                    captureButton.setEnabled(false);
-                                    statusText.setText("⚠️ Face quality low - Improve lighting");
-                                    statusText.setTextColor(getResources().getColor(android.R.color.holo_orange_dark));
+                FaceRecognitionUtils.detectFaces(bitmap, FaceDetectorRegistry.Profile.PREVIEW,
+                        createFrameCallback(null, 0, legacyFrameTimes, frameStartNanos));
+            }
+        }
+        
+        imageProxy.close();
+    }
+
+    /**
+     * Callback shared by both analysis paths. Faces go through the tracking gate, and a Bitmap is
+     * only built on keyframes that pass the full quality check.
+     */
+    private FaceRecognitionUtils.FaceDetectionCallback createFrameCallback(ImageProxy openProxy, int rotationDegrees,
+                                                                           FrameTimeTracker tracker, long frameStartNanos) {
+        return new FaceRecognitionUtils.FaceDetectionCallback() {
+            @Override
+            public void onFaceDetected(List<Face> faces, Bitmap processedBitmap) {
+                trackingGate.recordDetectorLatency(System.nanoTime() - frameStartNanos);
+                FaceTrackingGate.Status status;
+                if (faces.size() == 1) {
+                    Face face = faces.get(0);
+                    Rect box = face.getBoundingBox();
+                    status = trackingGate.onFaces(1, face.getTrackingId(), box.left, box.top, box.right, box.bottom,
+                            () -> FaceRecognitionUtils.isFaceQualityGood(face));
+                } else {
+                    status = trackingGate.onFaces(faces.size(), null, 0, 0, 0, 0, null);
+                }
+
+                boolean qualityGood = trackingGate.wasKeyframe() && status != FaceTrackingGate.Status.LOW_QUALITY;
+                float candidateScore = scoreAutoCaptureCandidate(faces.size() == 1 ? faces.get(0) : null,
+                        frameStartNanos);
+                int streak = candidateStreak;
+                if ((qualityGood || candidateScore >= 0) && processedBitmap == null) {
+                    // Convert off the main thread; the frame stays open until converted or dropped
+                    FaceWorkScheduler.getDefault().submit(FaceWorkScheduler.Lane.PREVIEW, CameraActivity.this,
+                            handle -> {
+                                Bitmap frame = frameToBitmap(openProxy, rotationDegrees);
+                                if (frame != null && !handle.isCancelled()) {
+                                    keepAnalysisFrame(frame, qualityGood, candidateScore, streak, frameStartNanos);
                                 }
-                            } else if (faces.size() > 1) {
-                                faceDetected = false;
-                                captureButton.setEnabled(false);
-                                statusText.setText("❌ Multiple faces detected - Only one person allowed");
-                                statusText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-                            } else {
-                                onNoFaceDetected();
-                            }
-                        });
+                                // The frame is finished here only, even if finishing throws
+                                handle.markDelivered();
+                                finishFrame(openProxy, tracker, frameStartNanos);
+                            },
+                            handle -> finishFrame(openProxy, tracker, frameStartNanos));
+                } else {
+                    if (processedBitmap != null) {
+                        keepAnalysisFrame(processedBitmap, qualityGood, candidateScore, streak, frameStartNanos);
                     }
+                    finishFrame(openProxy, tracker, frameStartNanos);
+                }
 
-                    @Override
-                    public void onNoFaceDetected() {
-                        runOnUiThread(() -> {
-                            faceDetected = false;
-                            captureButton.setEnabled(false);
-                            statusText.setText("👤 No face detected - Position your face in the frame");
-                            statusText.setTextColor(getResources().getColor(android.R.color.darker_gray));
-                        });
+                runOnUiThread(() -> {
+                    showTrackingStatus(status);
+                    if (status == FaceTrackingGate.Status.READY) {
+                        autoCaptureBestFrame();
                     }
+                });
+            }
 
-                    @Override
-                    public void onError(String error) {
-                        runOnUiThread(() -> {
-                            Log.e(TAG, "Face detection error: " + error);
-                            statusText.setText("❌ Face detection error");
-                            statusText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-                        });
-                    }
+            @Override
+            public void onNoFaceDetected() {
+                trackingGate.recordDetectorLatency(System.nanoTime() - frameStartNanos);
+                FaceTrackingGate.Status status = trackingGate.onFaces(0, null, 0, 0, 0, 0, null);
+                scoreAutoCaptureCandidate(null, frameStartNanos);
+                finishFrame(openProxy, tracker, frameStartNanos);
+                runOnUiThread(() -> showTrackingStatus(status));
+            }
+
+            @Override
+            public void onError(String error) {
+                finishFrame(openProxy, tracker, frameStartNanos);
+                runOnUiThread(() -> {
+                    Log.e(TAG, "Face detection error: " + error);
+                    shownStatus = null;
+                    statusText.setText("❌ Face detection error");
+                    statusText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
                 });
             }
+        };
+    }
+
+    /**
+     * Quality score of the face if its frame should go into bestFrames, otherwise -1.
+     * Candidates are the frames of the current good streak; a new streak starts from an empty buffer.
+     */
+    private float scoreAutoCaptureCandidate(Face face, long frameStartNanos) {
+        if (!autoCapture) {
+            return -1f;
+        }
+
+        int goodFrames = trackingGate.getConsecutiveGoodFrames();
+        if (goodFrames <= 1) {
+            clearAutoCaptureCandidates();
+        }
+        if (face == null || goodFrames == 0) {
+            return -1f;
+        }
+
+        float score = FaceRecognitionUtils.getFaceQualityScore(face);
+        return bestFrames.isWorthKeeping(score, frameStartNanos) ? score : -1f;
+    }
+
+    private void clearAutoCaptureCandidates() {
+        candidateStreak++;
+        bestFrames.clear();
+    }
+
+    private void keepAnalysisFrame(Bitmap frame, boolean qualityGood, float candidateScore, int streak,
+                                   long frameStartNanos) {
+        if (qualityGood) {
+            latestQualifiedFrame = frame;
+        }
+        if (candidateScore >= 0 && streak == candidateStreak) {
+            bestFrames.offer(frame, candidateScore, frameStartNanos);
+        }
+    }
+
+    /**
+     * Hand the best frame of the steady streak straight to the caller: no still capture,
+     * no file round trip and no second detection pass
+     */
+    private void autoCaptureBestFrame() {
+        if (!autoCapture || autoCaptured) {
+            return;
+        }
+
+        Bitmap best = bestFrames.best(System.nanoTime());
+        if (best == null) {
+            // The streak's frames are still being converted; try again on the next ready frame
+            return;
+        }
+
+        autoCaptured = true;
+        Log.d(TAG, "Auto-captured best of " + bestFrames.size(System.nanoTime()) + " analysis frame(s)");
+        captureButton.setEnabled(false);
+        shownStatus = null;
+        statusText.setText("📸 Face captured");
+        processCapturedImage(best);
+    }
+
+    /**
+     * Capture is only enabled once the gate reports the same face good for enough frames in a row
+     */
+    private void showTrackingStatus(FaceTrackingGate.Status status) {
+        if (status == shownStatus) {
+            return;
+        }
+        shownStatus = status;
+
+        faceDetected = status == FaceTrackingGate.Status.READY;
+        captureButton.setEnabled(faceDetected);
+        switch (status) {
+            case READY:
+                statusText.setText("✅ Face detected - Ready to capture!");
+                statusText.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
+                break;
+            case STABILIZING:
+                statusText.setText("🙂 Face detected - Hold still...");
+                statusText.setTextColor(getResources().getColor(android.R.color.holo_green_dark));
+                break;
+            case LOW_QUALITY:
+                statusText.setText("⚠️ Face quality low - Improve lighting");
+                statusText.setTextColor(getResources().getColor(android.R.color.holo_orange_dark));
+                break;
+            case MULTIPLE_FACES:
+                statusText.setText("❌ Multiple faces detected - Only one person allowed");
+                statusText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
+                break;
+            case NO_FACE:
+            default:
+                showNoFaceDetected();
+                break;
+        }
+    }
+
+    private void showNoFaceDetected() {
+        faceDetected = false;
+        captureButton.setEnabled(false);
+        statusText.setText("👤 No face detected - Position your face in the frame");
+        statusText.setTextColor(getResources().getColor(android.R.color.darker_gray));
+    }
+
+    private void finishFrame(ImageProxy openProxy, FrameTimeTracker tracker, long frameStartNanos) {
+        if (openProxy != null) {
+            openProxy.close();
+        }
+
+        tracker.record(System.nanoTime() - frameStartNanos);
+        if (tracker.getTotalFrames() % FRAME_STATS_LOG_INTERVAL == 0) {
+            Log.d(TAG, tracker.summary() + "; " + trackingGate.summary());
+        }
+    }
+
+    /**
+     * Build an upright Bitmap from a still-open analysis frame
+     */
+    private Bitmap frameToBitmap(ImageProxy imageProxy, int rotationDegrees) {
+        if (imageProxy == null) {
+            return null;
+        }
+
+        try {
+            Bitmap bitmap = imageProxy.toBitmap();
+
+            if (rotationDegrees == 0 && isBackCamera) {
+                return bitmap;
+            }
+
+            Matrix matrix = new Matrix();
+            matrix.postRotate(rotationDegrees);
+            if (!isBackCamera) {
+                matrix.postScale(-1, 1); // Mirror for front camera
+            }
+            return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        } catch (Exception e) {
+            Log.e(TAG, "Error converting analysis frame to Bitmap", e);
+            return null;
         }
-        
-        imageProxy.close();
     }
 
     private Bitmap imageProxyToBitmap(ImageProxy imageProxy) {
@@ -260,30 +494,35 @@ public class CameraActivity extends AppCompatActivity {
             vBuffer.get(nv21, ySize, vSize);
             uBuffer.get(nv21, ySize + vSize, uSize);
 
-            YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, 
-                    imageProxy.getWidth(), imageProxy.getHeight(), null);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            yuvImage.compressToJpeg(new Rect(0, 0, imageProxy.getWidth(), imageProxy.getHeight()), 
-                    100, out);
-            
-            byte[] imageBytes = out.toByteArray();
-            Bitmap bitmap = BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
-            
-            if (!isBackCamera) {
-                Matrix matrix = new Matrix();
-                matrix.postRotate(270);
-                matrix.postScale(-1, 1); // Mirror for front camera
-                bitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), 
-                        bitmap.getHeight(), matrix, true);
-            }
-            
-            return bitmap;
+            return nv21ToBitmap(nv21, imageProxy.getWidth(), imageProxy.getHeight(), !isBackCamera);
         } catch (Exception e) {
             Log.e(TAG, "Error converting ImageProxy to Bitmap", e);
             return null;
         }
     }
 
+    /**
+     * Legacy conversion: NV21 -> JPEG -> Bitmap, rotated and mirrored for the front camera
+     */
+    static Bitmap nv21ToBitmap(byte[] nv21, int width, int height, boolean frontCamera) {
+        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, width, height, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        yuvImage.compressToJpeg(new Rect(0, 0, width, height), 100, out);
+
+        byte[] imageBytes = out.toByteArray();
+        Bitmap bitmap = BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+
+        if (frontCamera) {
+            Matrix matrix = new Matrix();
+            matrix.postRotate(270);
+            matrix.postScale(-1, 1); // Mirror for front camera
+            bitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(),
+                    bitmap.getHeight(), matrix, true);
+        }
+
+        return bitmap;
+    }
+
     private void capturePhoto() {
         if (imageCapture == null || !faceDetected) {
             Toast.makeText(this, "Camera not ready or no face detected", Toast.LENGTH_SHORT).show();
@@ -291,11 +530,11 @@ public class CameraActivity extends AppCompatActivity {
         }
 
         captureButton.setEnabled(false);
+        shownStatus = null;
         statusText.setText("📸 Capturing...");
 
-        ImageCapture.OutputFileOptions outputFileOptions = new ImageCapture.OutputFileOptions.Builder(
-                new java.io.File(getCacheDir(), "temp_face_" + System.currentTimeMillis() + ".jpg")
-        ).build();
+        java.io.File captureFile = new java.io.File(getCacheDir(), "temp_face_" + System.currentTimeMillis() + ".jpg");
+        ImageCapture.OutputFileOptions outputFileOptions = new ImageCapture.OutputFileOptions.Builder(captureFile).build();
 
         imageCapture.takePicture(outputFileOptions, ContextCompat.getMainExecutor(this),
                 new ImageCapture.OnImageSavedCallback() {
@@ -305,8 +544,10 @@ public class CameraActivity extends AppCompatActivity {
                         if (output.getSavedUri() != null) {
                             try {
                                 Bitmap bitmap = BitmapFactory.decodeFile(output.getSavedUri().getPath());
+                                // The frame is held in memory from here on
+                                captureFile.delete();
                                 if (bitmap != null) {
-                                    processCapturedImage(bitmap);
+                                    verifyCapturedFace(bitmap);
                                 } else {
                                     onError(new ImageCaptureException(ImageCapture.ERROR_FILE_IO, 
                                             "Failed to decode captured image", null));
@@ -324,7 +565,16 @@ public class CameraActivity extends AppCompatActivity {
                     @Override
                     public void onError(@NonNull ImageCaptureException exception) {
                         Log.e(TAG, "Photo capture failed: " + exception.getMessage(), exception);
+
+                        // Fall back to the last analysis frame that already passed the quality gate
+                        if (latestQualifiedFrame != null) {
+                            Log.d(TAG, "Using latest qualified analysis frame instead of still capture");
+                            processCapturedImage(latestQualifiedFrame);
+                            return;
+                        }
+
                         runOnUiThread(() -> {
+                            shownStatus = null;
                             statusText.setText("❌ Capture failed - Try again");
                             captureButton.setEnabled(true);
                             Toast.makeText(CameraActivity.this, 
@@ -335,24 +585,55 @@ public class CameraActivity extends AppCompatActivity {
                 });
     }
 
+    /**
+     * Run the accurate detector once on the still capture before returning it
+     */
+    private void verifyCapturedFace(Bitmap bitmap) {
+        shownStatus = null;
+        statusText.setText("🔍 Checking captured face...");
+
+        FaceRecognitionUtils.detectFaces(bitmap, FaceDetectorRegistry.Profile.CAPTURE,
+                new FaceRecognitionUtils.FaceDetectionCallback() {
+                    @Override
+                    public void onFaceDetected(List<Face> faces, Bitmap processedBitmap) {
+                        if (faces.size() == 1) {
+                            processCapturedImage(bitmap);
+                        } else {
+                            showCaptureRejected("❌ Multiple faces detected - Only one person allowed");
+                        }
+                    }
+
+                    @Override
+                    public void onNoFaceDetected() {
+                        showCaptureRejected("👤 " + Constants.ERROR_FACE_NOT_DETECTED);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.e(TAG, "Captured face check failed: " + error);
+                        showCaptureRejected("❌ Face detection error - Try again");
+                    }
+                });
+    }
+
+    private void showCaptureRejected(String message) {
+        runOnUiThread(() -> {
+            shownStatus = null;
+            statusText.setText(message);
+            statusText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
+            captureButton.setEnabled(true);
+        });
+    }
+
     private void processCapturedImage(Bitmap bitmap) {
-        // Convert bitmap to base64
-        String base64Image = FaceRecognitionUtils.bitmapToBase64(bitmap);
-        
-        if (base64Image != null) {
-            // Return result
-            Intent resultIntent = new Intent();
-            resultIntent.putExtra(Constants.EXTRA_FACE_CAPTURE_SUCCESS, true);
-            resultIntent.putExtra(Constants.EXTRA_FACE_IMAGE_BASE64, base64Image);
-            setResult(RESULT_OK, resultIntent);
-            finish();
-        } else {
-            runOnUiThread(() -> {
-                statusText.setText("❌ Error processing image - Try again");
-                captureButton.setEnabled(true);
-                Toast.makeText(this, "Error processing captured image", Toast.LENGTH_SHORT).show();
-            });
-        }
+        // The bitmap stays in-process; the caller claims it with the token via CAPTURES.take()
+        String token = CAPTURES.put(bitmap);
+
+        Intent resultIntent = new Intent();
+        resultIntent.putExtra(Constants.EXTRA_FACE_CAPTURE_SUCCESS, true);
+        resultIntent.putExtra(Constants.EXTRA_FACE_CAPTURE_TOKEN, token);
+        setResult(RESULT_OK, resultIntent);
+        finish();
     }
 
     @Override
@@ -373,6 +654,7 @@ public class CameraActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        FaceRecognitionUtils.cancelWork(this);
         if (cameraExecutor != null) {
             cameraExecutor.shutdown();
         }
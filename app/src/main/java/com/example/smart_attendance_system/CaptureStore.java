@@ -0,0 +1,109 @@
+package com.example.smart_attendance_system;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process handoff of captured frames between activities. The producer puts a frame and passes
+ * only the returned short token in its result Intent; the consumer takes the frame by token, which
+ * also releases it. Frames nobody claims are dropped after a timeout or when too many are held.
+ */
+public class CaptureStore<T> {
+
+    /**
+     * Source of the current time, replaceable in tests
+     */
+    public interface Clock {
+        long now();
+    }
+
+    private static final class Slot<T> {
+        final T value;
+        final long storedAt;
+
+        Slot(T value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Insertion order, so the oldest frames are the first evicted
+    private final LinkedHashMap<String, Slot<T>> slots = new LinkedHashMap<>();
+
+    public CaptureStore(int maxEntries, long maxAgeMillis) {
+        this(maxEntries, maxAgeMillis, System::currentTimeMillis);
+    }
+
+    public CaptureStore(int maxEntries, long maxAgeMillis, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Hold the frame and return the token that claims it
+     */
+    public synchronized String put(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Frame is required");
+        }
+
+        long now = clock.now();
+        evictExpired(now);
+        while (slots.size() >= maxEntries) {
+            Iterator<String> oldest = slots.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+
+        String token = "cap-" + Long.toString(sequence.incrementAndGet(), 36) + "-" + Long.toString(now, 36);
+        slots.put(token, new Slot<>(value, now));
+        return token;
+    }
+
+    /**
+     * Claim and release the frame; null if the token is unknown, already taken or expired
+     */
+    public synchronized T take(String token) {
+        if (token == null) {
+            return null;
+        }
+        evictExpired(clock.now());
+        Slot<T> slot = slots.remove(token);
+        return slot != null ? slot.value : null;
+    }
+
+    /**
+     * Drop the frame without using it, e.g. when a capture is cancelled
+     */
+    public synchronized void release(String token) {
+        if (token != null) {
+            slots.remove(token);
+        }
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Slot<T>>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue().storedAt <= maxAgeMillis) {
+                // Later entries are newer
+                break;
+            }
+            iterator.remove();
+        }
+    }
+}
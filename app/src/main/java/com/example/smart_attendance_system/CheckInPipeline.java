@@ -0,0 +1,218 @@
+package com.example.smart_attendance_system;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.mlkit.vision.face.Face;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefetches everything a student check-in needs as soon as the dashboard opens, all in parallel:
+ * the reference embedding (from ReferenceFaceCache), today's active session with the student's status in it, and a warm
+ * camera and face detector. The check-in screens then consume the results instead of loading
+ * them one after another.
+ */
+public class CheckInPipeline {
+
+    private static final String TAG = "CheckInPipeline";
+    private static final int RECENT_SESSIONS_LIMIT = 10;
+
+    // Prefetched results are reused for this long; sessions open and close on a scale of minutes
+    private static final long MAX_AGE_MILLIS = 60 * 1000;
+
+    /**
+     * The session a student can mark now (null snapshot if none) and their current status in it
+     */
+    public static final class ActiveSession {
+        public final DataSnapshot session;
+        public final String attendanceStatus;
+
+        ActiveSession(DataSnapshot session, String attendanceStatus) {
+            this.session = session;
+            this.attendanceStatus = attendanceStatus;
+        }
+
+        public String getSessionId() {
+            return session != null ? session.getKey() : null;
+        }
+
+        public boolean isMarkedPresent() {
+            return Constants.ATTENDANCE_PRESENT.equals(attendanceStatus);
+        }
+    }
+
+    private static String prefetchedFor;
+    private static long referenceLoadedAt;
+    private static long sessionLoadedAt;
+    private static Task<float[]> referenceTask;
+    private static Task<ActiveSession> sessionTask;
+    private static boolean cameraWarmedUp;
+
+    private CheckInPipeline() {
+    }
+
+    /**
+     * Start every load that is not already fresh; safe to call repeatedly
+     */
+    public static synchronized void prefetch(Context context) {
+        String enrollmentNo = PreferenceManager.getEnrollmentNo(context);
+        if (enrollmentNo == null) {
+            return;
+        }
+        if (!enrollmentNo.equals(prefetchedFor)) {
+            invalidate();
+            prefetchedFor = enrollmentNo;
+        }
+
+        if (isStale(referenceTask, referenceLoadedAt)) {
+            referenceTask = ReferenceFaceCache.getInstance(context).getEmbedding(enrollmentNo);
+            referenceLoadedAt = System.currentTimeMillis();
+        }
+        if (isStale(sessionTask, sessionLoadedAt)) {
+            reloadActiveSession(context, enrollmentNo);
+        }
+        warmUpCamera(context);
+    }
+
+    /**
+     * Decoded reference embedding, or null when the student only has a legacy face_data image
+     */
+    public static synchronized Task<float[]> getReferenceEmbedding(Context context) {
+        prefetch(context);
+        return referenceTask != null ? referenceTask : Tasks.forResult(null);
+    }
+
+    /**
+     * Today's markable session for the student's class; refresh forces a new read
+     */
+    public static synchronized Task<ActiveSession> getActiveSession(Context context, boolean refresh) {
+        if (refresh) {
+            sessionTask = null;
+        }
+        prefetch(context);
+        return sessionTask != null ? sessionTask : Tasks.forResult(new ActiveSession(null, null));
+    }
+
+    /**
+     * Drop prefetched results, e.g. after a mark or on logout
+     */
+    public static synchronized void invalidate() {
+        prefetchedFor = null;
+        referenceTask = null;
+        sessionTask = null;
+    }
+
+    private static boolean isStale(Task<?> task, long loadedAt) {
+        return task == null
+                || (task.isComplete() && !task.isSuccessful())
+                || System.currentTimeMillis() - loadedAt > MAX_AGE_MILLIS;
+    }
+
+    private static void reloadActiveSession(Context context, String enrollmentNo) {
+        String classKey = DatabaseHelper.buildClassKey(PreferenceManager.getStudentBranch(context),
+                PreferenceManager.getStudentYear(context), PreferenceManager.getStudentSection(context));
+
+        // The class's recent sessions and the student's attendance map are read concurrently
+        Task<DataSnapshot> sessionsTask = DatabaseHelper.getInstance().getClassSessionsQuery(classKey)
+                .limitToLast(RECENT_SESSIONS_LIMIT).get();
+        Task<DataSnapshot> attendanceTask = DatabaseHelper.getInstance().getStudentsReference()
+                .child(enrollmentNo).child(Constants.STUDENT_ATTENDANCE).get();
+
+        sessionTask = Tasks.whenAllSuccess(sessionsTask, attendanceTask).continueWith(task -> {
+            DataSnapshot session = findActiveSession(sessionsTask.getResult());
+            String status = session != null
+                    ? attendanceTask.getResult().child(session.getKey()).getValue(String.class) : null;
+            Log.d(TAG, "Active session: " + (session != null ? session.getKey() : "none") + ", status: " + status);
+            return new ActiveSession(session, status);
+        });
+        sessionLoadedAt = System.currentTimeMillis();
+    }
+
+    // First session that is active, today's, and within its time window
+    private static DataSnapshot findActiveSession(DataSnapshot sessionsSnapshot) {
+        String currentDate = new SimpleDateFormat(Constants.DATE_FORMAT, Locale.getDefault()).format(new Date());
+
+        for (DataSnapshot sessionSnapshot : sessionsSnapshot.getChildren()) {
+            String sessionDate = sessionSnapshot.child(Constants.SESSION_DATE).getValue(String.class);
+            String sessionStatus = sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class);
+
+            if (currentDate.equals(sessionDate) && Constants.SESSION_ACTIVE.equals(sessionStatus)
+                    && isSessionTimeActive(sessionSnapshot)) {
+                return sessionSnapshot;
+            }
+        }
+        return null;
+    }
+
+    static boolean isSessionTimeActive(DataSnapshot sessionSnapshot) {
+        try {
+            String startTime = sessionSnapshot.child(Constants.SESSION_START_TIME).getValue(String.class);
+            String endTime = sessionSnapshot.child(Constants.SESSION_END_TIME).getValue(String.class);
+
+            if (startTime != null && endTime != null) {
+                SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+                Date currentTime = new Date();
+                Date sessionStart = timeFormat.parse(startTime);
+                Date sessionEnd = timeFormat.parse(endTime);
+
+                // Set dates to today for comparison
+                Calendar cal = Calendar.getInstance();
+
+                Calendar startCal = Calendar.getInstance();
+                startCal.setTime(sessionStart);
+                startCal.set(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
+
+                Calendar endCal = Calendar.getInstance();
+                endCal.setTime(sessionEnd);
+                endCal.set(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
+
+                // Allow attendance within session time + 30 minutes buffer
+                endCal.add(Calendar.MINUTE, 30);
+
+                return currentTime.after(startCal.getTime()) && currentTime.before(endCal.getTime());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing session time: " + e.getMessage());
+        }
+        return true; // Allow attendance if time parsing fails
+    }
+
+    // Initialise CameraX and load the face detection model before the camera screen asks for them
+    private static void warmUpCamera(Context context) {
+        if (cameraWarmedUp) {
+            return;
+        }
+        cameraWarmedUp = true;
+
+        ProcessCameraProvider.getInstance(context.getApplicationContext());
+
+        Bitmap blank = Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888);
+        FaceRecognitionUtils.detectFaces(blank, FaceDetectorRegistry.Profile.PREVIEW,
+                new FaceRecognitionUtils.FaceDetectionCallback() {
+                    @Override
+                    public void onFaceDetected(List<Face> faces, Bitmap processedBitmap) {
+                    }
+
+                    @Override
+                    public void onNoFaceDetected() {
+                        Log.d(TAG, "Face detector warmed up");
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.w(TAG, "Face detector warm-up failed: " + error);
+                    }
+                });
+    }
+}
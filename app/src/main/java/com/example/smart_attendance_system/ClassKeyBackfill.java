@@ -0,0 +1,98 @@
+package com.example.smart_attendance_system;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plans the one-shot backfill of class_key on sessions created before it existed, so they show
+ * up in the indexed class queries again, and of the class_rosters index for existing students.
+ * Pure Java so the app and the command-line sweeper share it.
+ */
+public final class ClassKeyBackfill {
+
+    private ClassKeyBackfill() {
+    }
+
+    /**
+     * The fields of a session the key is derived from
+     */
+    public static final class SessionFields {
+        final String branch;
+        final String year;
+        final String section;
+        final String classKey;
+
+        public SessionFields(String branch, String year, String section, String classKey) {
+            this.branch = branch;
+            this.year = year;
+            this.section = section;
+            this.classKey = classKey;
+        }
+    }
+
+    /**
+     * The fields of a student that go into the class roster index
+     */
+    public static final class StudentFields {
+        final String name;
+        final String email;
+        final String branch;
+        final String year;
+        final String section;
+
+        public StudentFields(String name, String email, String branch, String year, String section) {
+            this.name = name;
+            this.email = email;
+            this.branch = branch;
+            this.year = year;
+            this.section = section;
+        }
+    }
+
+    // Composite branch/year/section key, e.g. CSE_3_A
+    public static String buildClassKey(String branch, String year, String section) {
+        return branch + "_" + year + "_" + section;
+    }
+
+    /**
+     * Root-relative multi-path update writing class_key on every session that lacks it.
+     * Sessions missing branch, year or section are left alone.
+     */
+    public static Map<String, Object> buildSessionUpdates(Map<String, SessionFields> sessions) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, SessionFields> session : sessions.entrySet()) {
+            SessionFields fields = session.getValue();
+            if (fields.classKey != null || fields.branch == null || fields.year == null || fields.section == null) {
+                continue;
+            }
+            updates.put(Constants.ATTENDANCE_REPORT_REF + "/" + session.getKey() + "/" + Constants.SESSION_CLASS_KEY,
+                    buildClassKey(fields.branch, fields.year, fields.section));
+        }
+        return updates;
+    }
+
+    /**
+     * Root-relative multi-path update writing the class_rosters entry of every student.
+     * Students missing branch, year or section are left alone.
+     */
+    public static Map<String, Object> buildClassRosterUpdates(Map<String, StudentFields> students) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, StudentFields> student : students.entrySet()) {
+            StudentFields fields = student.getValue();
+            if (fields.branch == null || fields.year == null || fields.section == null) {
+                continue;
+            }
+            putClassRosterEntry(updates, buildClassKey(fields.branch, fields.year, fields.section),
+                    student.getKey(), fields.name, fields.email);
+        }
+        return updates;
+    }
+
+    // Adds the class_rosters entry of one student to a root-relative multi-path update
+    public static void putClassRosterEntry(Map<String, Object> updates, String classKey, String enrollmentNo,
+                                           String name, String email) {
+        String entryPath = Constants.CLASS_ROSTERS_REF + "/" + classKey + "/" + enrollmentNo + "/";
+        updates.put(entryPath + Constants.ROSTER_NAME, name != null ? name : "Unknown");
+        updates.put(entryPath + Constants.ROSTER_EMAIL, email != null ? email : "Unknown");
+    }
+}
@@ -7,6 +7,8 @@ public class Constants {
     public static final String FACULTY_REF = "faculty";
     public static final String ATTENDANCE_REPORT_REF = "attendance_sessions";
     public static final String ATTENDANCE_RECORDS_REF = "attendance_records";
+    // class_key -> enrollment -> {name, email}; seeds session rosters without downloading face data
+    public static final String CLASS_ROSTERS_REF = "class_rosters";
     
     // Student Fields
     public static final String STUDENT_NAME = "name";
@@ -16,7 +18,10 @@ public class Constants {
     public static final String STUDENT_SECTION = "section";
     public static final String STUDENT_HARDWARE_ID = "hardware_id";
     public static final String STUDENT_FACE_DATA = "face_data";
+    public static final String STUDENT_FACE_EMBEDDING = "face_embedding";
+    public static final String STUDENT_FACE_REGISTERED_AT = "face_registered_at";
     public static final String STUDENT_ATTENDANCE = "attendance";
+    public static final String STUDENT_CLASS_KEY = "class_key";
     
     // Faculty Fields
     public static final String FACULTY_NAME = "name";
@@ -35,6 +40,18 @@ public class Constants {
     public static final String SESSION_STATUS = "status";
     public static final String SESSION_FACULTY_ID = "faculty_id";
     public static final String SESSION_CREATED_AT = "created_at";
+    public static final String SESSION_ROSTER = "roster";
+    public static final String SESSION_CLASS_KEY = "class_key";
+    public static final String SESSION_ENDED_AT = "ended_at";
+    public static final String SESSION_TOTAL_COUNT = "total_count";
+    public static final String SESSION_PRESENT_COUNT = "present_count";
+    public static final String SESSION_ABSENT_COUNT = "absent_count";
+    
+    // Roster Entry Fields (attendance_sessions/{sessionId}/roster/{enrollmentNo})
+    public static final String ROSTER_NAME = "name";
+    public static final String ROSTER_EMAIL = "email";
+    public static final String ROSTER_STATUS = "status";
+    public static final String ROSTER_MARKED_AT = "marked_at";
     
     // Session Status Values
     public static final String SESSION_ACTIVE = "active";
@@ -59,15 +76,28 @@ public class Constants {
     public static final String EXTRA_IS_LIVE_VIEW = "extra_is_live_view";
     public static final String EXTRA_FACE_VERIFIED = "extra_face_verified";
     public static final String EXTRA_FACE_CAPTURE_SUCCESS = "extra_face_capture_success";
-    public static final String EXTRA_FACE_IMAGE_BASE64 = "extra_face_image_base64";
+    public static final String EXTRA_FACE_CAPTURE_TOKEN = "extra_face_capture_token";
     public static final String EXTRA_IS_FIRST_TIME_REGISTRATION = "extra_is_first_time_registration";
     
     // Validation Constants
     public static final String REQUIRED_EMAIL_DOMAIN = "saec.ac.in";
     public static final int MIN_PASSWORD_LENGTH = 6;
     public static final float FACE_MATCH_THRESHOLD = 0.75f;
+    public static final int DEFAULTER_THRESHOLD_PERCENT = 75;
     public static final int FACE_JPEG_QUALITY = 80;
     
+    // Camera Analysis Settings
+    // true: pass YUV planes straight to ML Kit; false: legacy NV21 -> JPEG -> Bitmap conversion per frame
+    public static final boolean ZERO_COPY_FRAME_ANALYSIS = true;
+    // Consecutive good frames of the same tracked face before capture is allowed
+    public static final int FACE_READY_CONSECUTIVE_FRAMES = 4;
+    // Analyzed frames between full quality checks of a steadily tracked face
+    public static final int FACE_KEYFRAME_INTERVAL = 5;
+    // Attendance check-in takes the best recent analysis frame instead of a still capture
+    public static final boolean AUTO_CAPTURE_FOR_ATTENDANCE = true;
+    public static final int AUTO_CAPTURE_CANDIDATES = 4;
+    public static final long AUTO_CAPTURE_WINDOW_MILLIS = 1500;
+    
     // Network Constants
     public static final String UNIVERSITY_WIFI_BSSID = "98:25:4a:25:7a:b7";
     public static final String PLACEHOLDER_BSSID = "02:00:00:00:00:00";
@@ -137,6 +167,7 @@ public class Constants {
     
     // Auto-close settings
     public static final long SESSION_AUTO_CLOSE_TIME = 30 * 60 * 1000; // 30 minutes
+    public static final long SESSION_STALE_AFTER = 6 * 60 * 60 * 1000; // still active after 6 hours => orphaned
     
     // Success Messages
     public static final String SUCCESS_PASSWORD_RESET = "Password reset successfully!";
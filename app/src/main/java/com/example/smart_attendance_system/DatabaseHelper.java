@@ -1,9 +1,24 @@
 package com.example.smart_attendance_system;
 
 import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DatabaseHelper {
@@ -12,6 +27,30 @@ public class DatabaseHelper {
     private static DatabaseHelper instance;
     private FirebaseDatabase database;
 
+    /**
+     * A write the server answered with an error; keeps the DatabaseError code that
+     * DatabaseError.toException() drops, so callers can tell rejections from transient failures
+     */
+    public static class WriteFailedException extends Exception {
+        private final int code;
+
+        WriteFailedException(DatabaseError error) {
+            super(error.getMessage(), error.toException());
+            this.code = error.getCode();
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * True when retrying the same write can never succeed, e.g. it fails the security rules
+         */
+        public boolean isPermanent() {
+            return code == DatabaseError.PERMISSION_DENIED || code == DatabaseError.USER_CODE_EXCEPTION;
+        }
+    }
+
     private DatabaseHelper() {
         database = FirebaseDatabase.getInstance();
         // Enable offline persistence
@@ -41,10 +80,47 @@ public class DatabaseHelper {
         return database.getReference(Constants.FACULTY_REF);
     }
 
+    // Composite branch/year/section key, e.g. CSE_3_A, so a class is one indexed equalTo()
+    public static String buildClassKey(String branch, String year, String section) {
+        return ClassKeyBackfill.buildClassKey(branch, year, section);
+    }
+
+    // Students of one class (indexed on class_key)
+    public Query getClassStudentsQuery(String classKey) {
+        return getStudentsReference().orderByChild(Constants.STUDENT_CLASS_KEY).equalTo(classKey);
+    }
+
+    // Sessions of one class (indexed on class_key)
+    public Query getClassSessionsQuery(String classKey) {
+        return getAttendanceReportReference().orderByChild(Constants.SESSION_CLASS_KEY).equalTo(classKey);
+    }
+
+    // Name and email of every student in a class, without the face data under students
+    public DatabaseReference getClassRosterReference(String classKey) {
+        return database.getReference(Constants.CLASS_ROSTERS_REF).child(classKey);
+    }
+
+    // Write class_key and the class_rosters entry for students created before they existed
+    public void backfillStudentClassKey(String enrollmentNo, String studentName, String email,
+                                        String branch, String year, String section) {
+        if (branch == null || year == null || section == null) {
+            return;
+        }
+
+        String classKey = buildClassKey(branch, year, section);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(Constants.STUDENTS_REF + "/" + enrollmentNo + "/" + Constants.STUDENT_CLASS_KEY, classKey);
+        ClassKeyBackfill.putClassRosterEntry(updates, classKey, enrollmentNo, studentName, email);
+
+        database.getReference().updateChildren(updates)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Class key backfilled for: " + enrollmentNo))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to backfill class key for: " + enrollmentNo, e));
+    }
+
     // Helper method to create a new student record
     public void createStudentRecord(String enrollmentNo, String studentName, String email,
                                     String branch, String year, String section) {
-        DatabaseReference studentRef = getStudentsReference().child(enrollmentNo);
+        String classKey = buildClassKey(branch, year, section);
 
         Map<String, Object> studentData = new HashMap<>();
         studentData.put(Constants.STUDENT_NAME, studentName);
@@ -52,10 +128,16 @@ public class DatabaseHelper {
         studentData.put(Constants.STUDENT_BRANCH, branch);
         studentData.put(Constants.STUDENT_YEAR, year);
         studentData.put(Constants.STUDENT_SECTION, section);
+        studentData.put(Constants.STUDENT_CLASS_KEY, classKey);
         studentData.put("created_at", System.currentTimeMillis());
         studentData.put("updated_at", System.currentTimeMillis());
 
-        studentRef.setValue(studentData)
+        // The student and their class_rosters entry are written together
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(Constants.STUDENTS_REF + "/" + enrollmentNo, studentData);
+        ClassKeyBackfill.putClassRosterEntry(updates, classKey, enrollmentNo, studentName, email);
+
+        database.getReference().updateChildren(updates)
                 .addOnSuccessListener(aVoid -> Log.d(TAG, "Student record created successfully for: " + enrollmentNo))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to create student record for: " + enrollmentNo, e));
     }
@@ -78,61 +160,354 @@ public class DatabaseHelper {
     }
 
     // Helper method to mark attendance
-    public void markAttendance(String enrollmentNo, String sessionId, String status) {
-        DatabaseReference attendanceRef = getStudentsReference()
-                .child(enrollmentNo)
-                .child(Constants.STUDENT_ATTENDANCE)
-                .child(sessionId);
-
-        Map<String, Object> attendanceData = new HashMap<>();
-        attendanceData.put("status", status);
-        attendanceData.put("marked_at", System.currentTimeMillis());
-
-        attendanceRef.setValue(status)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Attendance marked successfully for: " + enrollmentNo + " in session: " + sessionId);
-                    // Also update the timestamp
-                    attendanceRef.getParent().child("last_updated").setValue(System.currentTimeMillis());
-                })
+    public Task<Void> markAttendance(String enrollmentNo, String sessionId, String status) {
+        return markAttendance(enrollmentNo, null, sessionId, status);
+    }
+
+    // Mark attendance on the student and fan out to the session roster in one multi-path write
+    public Task<Void> markAttendance(String enrollmentNo, String studentName, String sessionId, String status) {
+        Map<String, Object> updates = new HashMap<>();
+        putAttendanceUpdates(updates, enrollmentNo, studentName, sessionId, status, System.currentTimeMillis());
+
+        return database.getReference().updateChildren(updates)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Attendance marked successfully for: " + enrollmentNo + " in session: " + sessionId))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to mark attendance for: " + enrollmentNo, e));
     }
 
-    // Helper method to create attendance session
-    public void createAttendanceSession(String sessionId, String branch, String year,
+    // Push a batch of journaled marks in one multi-path write. Every path is an absolute value
+    // keyed by enrollment and session, so replaying a batch after a failed attempt is harmless.
+    // Fails with WriteFailedException when the server rejects the batch.
+    public Task<Void> markAttendanceBatch(List<AttendanceJournal.Entry> entries) {
+        Map<String, Object> updates = new HashMap<>();
+        for (AttendanceJournal.Entry entry : entries) {
+            putAttendanceUpdates(updates, entry.enrollmentNo, entry.studentName, entry.sessionId,
+                    entry.status, entry.markedAt);
+        }
+
+        TaskCompletionSource<Void> result = new TaskCompletionSource<>();
+        database.getReference().updateChildren(updates, (error, ref) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to sync batch of " + entries.size() + " attendance marks", error.toException());
+                result.trySetException(new WriteFailedException(error));
+                return;
+            }
+            Log.d(TAG, "Synced batch of " + entries.size() + " attendance marks");
+            result.trySetResult(null);
+        });
+        return result.getTask();
+    }
+
+    // Outcome of markPresentOnce
+    public enum MarkResult {
+        // This call made the mark
+        MARKED,
+        // The student was already marked present
+        ALREADY_PRESENT,
+        // The rules refused the mark: the session is not active, or the student is not on its roster.
+        // It can never be made, so callers should drop it rather than retry.
+        REJECTED
+    }
+
+    // Mark present only if the roster entry is not already present, with marked_at from the server clock.
+    // The transaction runs on the roster entry alone, so a duplicate tap or a replayed sync costs a single
+    // round-trip and concurrent check-ins do not contend. That the session is active and the entry exists
+    // is enforced by the rules on roster/$enrollment_no/status, which surface as REJECTED.
+    public Task<MarkResult> markPresentOnce(String enrollmentNo, String studentName, String sessionId) {
+        TaskCompletionSource<MarkResult> result = new TaskCompletionSource<>();
+        DatabaseReference studentAttendanceRef = getStudentsReference().child(enrollmentNo)
+                .child(Constants.STUDENT_ATTENDANCE).child(sessionId);
+
+        getSessionRosterReference(sessionId).child(enrollmentNo).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                String status = currentData.child(Constants.ROSTER_STATUS).getValue(String.class);
+                if (Constants.ATTENDANCE_PRESENT.equals(status)) {
+                    return Transaction.abort();
+                }
+
+                currentData.child(Constants.ROSTER_STATUS).setValue(Constants.ATTENDANCE_PRESENT);
+                currentData.child(Constants.ROSTER_MARKED_AT).setValue(ServerValue.TIMESTAMP);
+                if (studentName != null && currentData.child(Constants.ROSTER_NAME).getValue() == null) {
+                    currentData.child(Constants.ROSTER_NAME).setValue(studentName);
+                }
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null && error.getCode() == DatabaseError.PERMISSION_DENIED) {
+                    Log.w(TAG, "Attendance rejected for: " + enrollmentNo + " in session: " + sessionId
+                            + " (session not active or student not on roster)");
+                    result.trySetResult(MarkResult.REJECTED);
+                    return;
+                }
+                if (error != null) {
+                    Log.e(TAG, "Failed to mark attendance for: " + enrollmentNo, error.toException());
+                    result.trySetException(new WriteFailedException(error));
+                    return;
+                }
+
+                if (!committed) {
+                    Log.d(TAG, "Attendance already marked for: " + enrollmentNo + " in session: " + sessionId);
+                    // Repair the student's copy in case an earlier mirror write was lost; queued by the SDK
+                    studentAttendanceRef.setValue(Constants.ATTENDANCE_PRESENT);
+                    result.trySetResult(MarkResult.ALREADY_PRESENT);
+                    return;
+                }
+
+                // Mirror onto the student's own record
+                studentAttendanceRef.setValue(Constants.ATTENDANCE_PRESENT)
+                        .addOnSuccessListener(aVoid -> {
+                            Log.d(TAG, "Attendance marked successfully for: " + enrollmentNo + " in session: " + sessionId);
+                            result.trySetResult(MarkResult.MARKED);
+                        })
+                        .addOnFailureListener(result::trySetException);
+            }
+        });
+
+        return result.getTask();
+    }
+
+    private static void putAttendanceUpdates(Map<String, Object> updates, String enrollmentNo, String studentName,
+                                             String sessionId, String status, long markedAt) {
+        String rosterPath = rosterEntryPath(sessionId, enrollmentNo);
+        updates.put(Constants.STUDENTS_REF + "/" + enrollmentNo + "/" + Constants.STUDENT_ATTENDANCE + "/" + sessionId, status);
+        updates.put(rosterPath + "/" + Constants.ROSTER_STATUS, status);
+        updates.put(rosterPath + "/" + Constants.ROSTER_MARKED_AT, markedAt);
+        if (studentName != null) {
+            updates.put(rosterPath + "/" + Constants.ROSTER_NAME, studentName);
+        }
+    }
+
+    // Reference to the denormalized roster of a session
+    public DatabaseReference getSessionRosterReference(String sessionId) {
+        return getAttendanceReportReference().child(sessionId).child(Constants.SESSION_ROSTER);
+    }
+
+    private static String rosterEntryPath(String sessionId, String enrollmentNo) {
+        return Constants.ATTENDANCE_REPORT_REF + "/" + sessionId + "/" + Constants.SESSION_ROSTER + "/" + enrollmentNo;
+    }
+
+    // Create the session together with its roster (name/email of every student in the class)
+    // in one multi-path write, so the session never appears without its roster.
+    // The roster is copied from class_rosters, which holds just name and email; only a class
+    // not indexed yet falls back to the full student records, and its index is written alongside.
+    public Task<Void> createAttendanceSession(String sessionId, String branch, String year,
                                         String section, String subject, String date,
                                         String startTime, String endTime, String facultyEmail) {
-        DatabaseReference sessionRef = getAttendanceReportReference().child(sessionId);
-
-        Map<String, Object> sessionData = new HashMap<>();
-        sessionData.put(Constants.SESSION_BRANCH, branch);
-        sessionData.put(Constants.SESSION_YEAR, year);
-        sessionData.put(Constants.SESSION_SECTION, section);
-        sessionData.put(Constants.SESSION_SUBJECT, subject);
-        sessionData.put(Constants.SESSION_DATE, date);
-        sessionData.put(Constants.SESSION_START_TIME, startTime);
-        sessionData.put(Constants.SESSION_END_TIME, endTime);
-        sessionData.put(Constants.SESSION_STATUS, Constants.SESSION_ACTIVE);
-        sessionData.put("faculty_email", facultyEmail);
-        sessionData.put("created_at", System.currentTimeMillis());
-        sessionData.put("updated_at", System.currentTimeMillis());
-
-        sessionRef.setValue(sessionData)
+        String classKey = buildClassKey(branch, year, section);
+
+        return getClassRosterReference(classKey).get().continueWithTask(rosterTask -> {
+            DataSnapshot rosterSnapshot = rosterTask.getResult();
+            if (rosterSnapshot.hasChildren()) {
+                return Tasks.forResult(rosterSnapshot);
+            }
+            Log.w(TAG, "No class roster index for " + classKey + ", reading student records");
+            return getClassStudentsQuery(classKey).get();
+        }).continueWithTask(classTask -> {
+            DataSnapshot classSnapshot = classTask.getResult();
+            // Index and student records both keep name and email under the same keys
+            boolean indexed = !Constants.STUDENTS_REF.equals(classSnapshot.getKey());
+            String sessionPath = Constants.ATTENDANCE_REPORT_REF + "/" + sessionId + "/";
+            long now = System.currentTimeMillis();
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(sessionPath + Constants.SESSION_BRANCH, branch);
+            updates.put(sessionPath + Constants.SESSION_YEAR, year);
+            updates.put(sessionPath + Constants.SESSION_SECTION, section);
+            updates.put(sessionPath + Constants.SESSION_CLASS_KEY, classKey);
+            updates.put(sessionPath + Constants.SESSION_SUBJECT, subject);
+            updates.put(sessionPath + Constants.SESSION_DATE, date);
+            updates.put(sessionPath + Constants.SESSION_START_TIME, startTime);
+            updates.put(sessionPath + Constants.SESSION_END_TIME, endTime);
+            updates.put(sessionPath + Constants.SESSION_STATUS, Constants.SESSION_ACTIVE);
+            updates.put(sessionPath + "faculty_email", facultyEmail);
+            updates.put(sessionPath + Constants.SESSION_CREATED_AT, now);
+            updates.put(sessionPath + "updated_at", now);
+
+            for (DataSnapshot studentSnapshot : classSnapshot.getChildren()) {
+                String entryPath = rosterEntryPath(sessionId, studentSnapshot.getKey());
+                String name = studentSnapshot.child(Constants.STUDENT_NAME).getValue(String.class);
+                String email = studentSnapshot.child(Constants.STUDENT_EMAIL).getValue(String.class);
+                updates.put(entryPath + "/" + Constants.ROSTER_NAME, name != null ? name : "Unknown");
+                updates.put(entryPath + "/" + Constants.ROSTER_EMAIL, email != null ? email : "Unknown");
+                if (!indexed) {
+                    ClassKeyBackfill.putClassRosterEntry(updates, classKey, studentSnapshot.getKey(), name, email);
+                }
+            }
+
+            Log.d(TAG, "Creating session " + sessionId + " with roster of " + classSnapshot.getChildrenCount() + " students");
+            return database.getReference().updateChildren(updates);
+        })
                 .addOnSuccessListener(aVoid -> Log.d(TAG, "Attendance session created successfully: " + sessionId))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to create attendance session: " + sessionId, e));
     }
 
     // Helper method to end attendance session
-    public void endAttendanceSession(String sessionId) {
-        DatabaseReference sessionRef = getAttendanceReportReference().child(sessionId);
+    public Task<Boolean> closeAttendanceSession(String sessionId) {
+        return closeAttendanceSession(sessionId, null);
+    }
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put(Constants.SESSION_STATUS, Constants.SESSION_ENDED);
-        updates.put("ended_at", System.currentTimeMillis());
-        updates.put("updated_at", System.currentTimeMillis());
+    // End a session in one transaction on the session node, which holds the roster: ended status,
+    // final counts and an explicit absent entry for everyone not marked present commit together,
+    // so a check-in racing the close is either counted present or rejected by the rules.
+    // The students' own copies of the absent entries are mirrored after the commit.
+    // extraFields are written on the session node alongside, e.g. auto-close details.
+    // A session that is no longer active, or missing, is left as it is; resolves to whether this call ended it.
+    public Task<Boolean> closeAttendanceSession(String sessionId, Map<String, Object> extraFields) {
+        TaskCompletionSource<Boolean> result = new TaskCompletionSource<>();
 
-        sessionRef.updateChildren(updates)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Attendance session ended successfully: " + sessionId))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to end attendance session: " + sessionId, e));
+        getAttendanceReportReference().child(sessionId).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                if (currentData.getValue() == null) {
+                    // Nothing cached locally yet; the server answers with the real session
+                    return Transaction.success(currentData);
+                }
+                if (!Constants.SESSION_ACTIVE.equals(currentData.child(Constants.SESSION_STATUS).getValue(String.class))) {
+                    return Transaction.abort();
+                }
+
+                int present = 0;
+                int absent = 0;
+                for (MutableData entryData : currentData.child(Constants.SESSION_ROSTER).getChildren()) {
+                    if (Constants.ATTENDANCE_PRESENT.equals(entryData.child(Constants.ROSTER_STATUS).getValue(String.class))) {
+                        present++;
+                    } else {
+                        absent++;
+                        entryData.child(Constants.ROSTER_STATUS).setValue(Constants.ATTENDANCE_ABSENT);
+                    }
+                }
+
+                currentData.child(Constants.SESSION_STATUS).setValue(Constants.SESSION_ENDED);
+                currentData.child(Constants.SESSION_ENDED_AT).setValue(ServerValue.TIMESTAMP);
+                currentData.child("updated_at").setValue(System.currentTimeMillis());
+                currentData.child(Constants.SESSION_TOTAL_COUNT).setValue(present + absent);
+                currentData.child(Constants.SESSION_PRESENT_COUNT).setValue(present);
+                currentData.child(Constants.SESSION_ABSENT_COUNT).setValue(absent);
+                if (extraFields != null) {
+                    for (Map.Entry<String, Object> field : extraFields.entrySet()) {
+                        currentData.child(field.getKey()).setValue(field.getValue());
+                    }
+                }
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    Log.e(TAG, "Failed to end attendance session: " + sessionId, error.toException());
+                    result.trySetException(new WriteFailedException(error));
+                    return;
+                }
+                if (!committed || currentData == null || !currentData.exists()) {
+                    Log.d(TAG, "Session " + sessionId + " was not active, left unchanged");
+                    result.trySetResult(false);
+                    return;
+                }
+
+                // Mirror the committed absent entries onto the students' own records
+                Map<String, Object> updates = new HashMap<>();
+                for (DataSnapshot entrySnapshot : currentData.child(Constants.SESSION_ROSTER).getChildren()) {
+                    if (Constants.ATTENDANCE_ABSENT.equals(entrySnapshot.child(Constants.ROSTER_STATUS).getValue(String.class))) {
+                        updates.put(Constants.STUDENTS_REF + "/" + entrySnapshot.getKey() + "/"
+                                + Constants.STUDENT_ATTENDANCE + "/" + sessionId, Constants.ATTENDANCE_ABSENT);
+                    }
+                }
+                Log.d(TAG, "Attendance session ended successfully: " + sessionId + ", "
+                        + currentData.child(Constants.SESSION_PRESENT_COUNT).getValue() + " present, "
+                        + updates.size() + " absent");
+
+                if (updates.isEmpty()) {
+                    result.trySetResult(true);
+                    return;
+                }
+                database.getReference().updateChildren(updates, (mirrorError, ref) -> {
+                    if (mirrorError != null) {
+                        // Queued by the SDK while offline, so only a rules rejection lands here; the roster stays authoritative
+                        Log.e(TAG, "Failed to mirror absent entries for session: " + sessionId, mirrorError.toException());
+                    }
+                    result.trySetResult(true);
+                });
+            }
+        });
+
+        return result.getTask();
+    }
+
+    // Expire every session still active but created before the cutoff, in one multi-path write that also
+    // writes their absent entries and counts. Resolves to the number of sessions expired.
+    public Task<Integer> expireStaleSessions(long cutoff) {
+        return getAttendanceReportReference().orderByChild(Constants.SESSION_STATUS)
+                .equalTo(Constants.SESSION_ACTIVE).get().continueWithTask(activeTask -> {
+                    DataSnapshot activeSnapshot = activeTask.getResult();
+                    Map<String, Long> createdAt = new HashMap<>();
+                    for (DataSnapshot sessionSnapshot : activeSnapshot.getChildren()) {
+                        createdAt.put(sessionSnapshot.getKey(),
+                                sessionSnapshot.child(Constants.SESSION_CREATED_AT).getValue(Long.class));
+                    }
+
+                    List<String> stale = StaleSessionSweep.findStale(createdAt, cutoff);
+                    if (stale.isEmpty()) {
+                        return Tasks.forResult(0);
+                    }
+
+                    Map<String, Map<String, String>> rosters = new HashMap<>();
+                    for (String sessionId : stale) {
+                        Map<String, String> roster = new HashMap<>();
+                        for (DataSnapshot entrySnapshot : activeSnapshot.child(sessionId).child(Constants.SESSION_ROSTER).getChildren()) {
+                            roster.put(entrySnapshot.getKey(), entrySnapshot.child(Constants.ROSTER_STATUS).getValue(String.class));
+                        }
+                        rosters.put(sessionId, roster);
+                    }
+
+                    Map<String, Object> updates = StaleSessionSweep.buildExpiryUpdates(rosters, System.currentTimeMillis());
+                    return database.getReference().updateChildren(updates).continueWith(task -> {
+                        task.getResult();
+                        return stale.size();
+                    });
+                })
+                .addOnSuccessListener(count -> Log.d(TAG, "Expired " + count + " stale sessions"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to expire stale sessions", e));
+    }
+
+    // Attendance of a class across all its ended or expired sessions, oldest first, built from the session rosters
+    // in one indexed read so no student profile (or face data) is downloaded
+    public Task<AttendanceMatrix> loadClassAttendanceMatrix(String classKey) {
+        return getClassSessionsQuery(classKey).get().continueWith(task -> {
+            List<DataSnapshot> ended = new ArrayList<>();
+            for (DataSnapshot sessionSnapshot : task.getResult().getChildren()) {
+                if (StaleSessionSweep.isCompleted(sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class))) {
+                    ended.add(sessionSnapshot);
+                }
+            }
+            ended.sort((s1, s2) -> Long.compare(createdAt(s1), createdAt(s2)));
+
+            AttendanceMatrix matrix = new AttendanceMatrix();
+            for (DataSnapshot sessionSnapshot : ended) {
+                String subject = sessionSnapshot.child(Constants.SESSION_SUBJECT).getValue(String.class);
+                String date = sessionSnapshot.child(Constants.SESSION_DATE).getValue(String.class);
+                int session = matrix.addSession(sessionSnapshot.getKey(), date + " " + subject);
+
+                for (DataSnapshot entrySnapshot : sessionSnapshot.child(Constants.SESSION_ROSTER).getChildren()) {
+                    int student = matrix.addStudent(entrySnapshot.getKey(),
+                            entrySnapshot.child(Constants.ROSTER_NAME).getValue(String.class));
+                    if (Constants.ATTENDANCE_PRESENT.equals(entrySnapshot.child(Constants.ROSTER_STATUS).getValue(String.class))) {
+                        matrix.setPresent(student, session, true);
+                    }
+                }
+            }
+            Log.d(TAG, "Loaded attendance matrix for " + classKey + ": " + matrix.getStudentCount()
+                    + " students x " + matrix.getSessionCount() + " sessions");
+            return matrix;
+        });
+    }
+
+    private static long createdAt(DataSnapshot sessionSnapshot) {
+        Long createdAt = sessionSnapshot.child(Constants.SESSION_CREATED_AT).getValue(Long.class);
+        return createdAt != null ? createdAt : 0L;
     }
 
     // Helper method to update student device ID
@@ -154,6 +529,27 @@ public class DatabaseHelper {
         return database.getReference(path);
     }
 
+    // Difference between Firebase server time and the device clock, in milliseconds
+    public Task<Long> getServerTimeOffset() {
+        TaskCompletionSource<Long> result = new TaskCompletionSource<>();
+
+        database.getReference(".info/serverTimeOffset").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long offset = snapshot.getValue(Long.class);
+                result.trySetResult(offset != null ? offset : 0L);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Server time offset unavailable: " + error.getMessage());
+                result.trySetException(error.toException());
+            }
+        });
+
+        return result.getTask();
+    }
+
     // Helper method to check database connection
     public void checkConnection() {
         DatabaseReference connectedRef = database.getReference(".info/connected");
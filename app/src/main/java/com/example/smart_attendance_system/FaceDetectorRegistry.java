@@ -0,0 +1,80 @@
+package com.example.smart_attendance_system;
+
+import android.util.Log;
+
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds one long-lived ML Kit FaceDetector per option profile.
+ * Detectors are created on first use and released together in closeAll().
+ */
+public class FaceDetectorRegistry {
+
+    private static final String TAG = "FaceDetectorRegistry";
+
+    public enum Profile {
+        // Live camera preview: cheap per-frame detection, eye classification for the quality gate
+        PREVIEW,
+        // Final capture: full landmarks and classification
+        CAPTURE
+    }
+
+    private static final Map<Profile, FaceDetector> detectors = new EnumMap<>(Profile.class);
+
+    private FaceDetectorRegistry() {
+    }
+
+    /**
+     * Get the shared detector for a profile, creating it if needed
+     */
+    public static synchronized FaceDetector get(Profile profile) {
+        FaceDetector detector = detectors.get(profile);
+        if (detector == null) {
+            detector = FaceDetection.getClient(buildOptions(profile));
+            detectors.put(profile, detector);
+            Log.d(TAG, "Created face detector for profile " + profile);
+        }
+        return detector;
+    }
+
+    static FaceDetectorOptions buildOptions(Profile profile) {
+        switch (profile) {
+            case PREVIEW:
+                return new FaceDetectorOptions.Builder()
+                        .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_FAST)
+                        .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_NONE)
+                        .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
+                        .setMinFaceSize(0.15f)
+                        .enableTracking()
+                        .build();
+            case CAPTURE:
+            default:
+                return new FaceDetectorOptions.Builder()
+                        .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE)
+                        .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
+                        .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
+                        .setMinFaceSize(0.15f)
+                        .enableTracking()
+                        .build();
+        }
+    }
+
+    /**
+     * Close every detector; later calls to get() create fresh instances
+     */
+    public static synchronized void closeAll() {
+        for (Map.Entry<Profile, FaceDetector> entry : detectors.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (Exception e) {
+                Log.w(TAG, "Error closing detector for profile " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        detectors.clear();
+    }
+}
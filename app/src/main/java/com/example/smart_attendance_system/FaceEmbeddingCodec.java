@@ -0,0 +1,108 @@
+package com.example.smart_attendance_system;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Compact, versioned wire format for face embeddings stored under students/{id}/face_embedding.
+ * Layout (big-endian, then base64): version byte, dimension short, scale float, one int8 per value.
+ * A 512-value embedding encodes to ~700 characters instead of a multi-KB JPEG.
+ */
+public class FaceEmbeddingCodec {
+
+    public static final int VERSION_INT8 = 1;
+
+    private static final int HEADER_BYTES = 1 + 2 + 4;
+    private static final float INT8_MAX = 127.0f;
+
+    private FaceEmbeddingCodec() {
+    }
+
+    /**
+     * Quantize an embedding to int8 with a single symmetric scale and encode it as base64
+     */
+    public static String encode(float[] embedding) {
+        if (embedding == null || embedding.length == 0 || embedding.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Embedding must hold between 1 and " + Short.MAX_VALUE + " values");
+        }
+
+        float maxAbs = 0.0f;
+        for (float value : embedding) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs > 0 ? maxAbs / INT8_MAX : 1.0f;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + embedding.length);
+        buffer.put((byte) VERSION_INT8);
+        buffer.putShort((short) embedding.length);
+        buffer.putFloat(scale);
+        for (float value : embedding) {
+            int quantized = Math.round(value / scale);
+            buffer.put((byte) Math.max(-127, Math.min(127, quantized)));
+        }
+
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decode a stored embedding into a new array
+     */
+    public static float[] decode(String encoded) {
+        ByteBuffer buffer = readHeader(encoded);
+        float[] embedding = new float[buffer.getShort(1)];
+        decodeValues(buffer, embedding);
+        return embedding;
+    }
+
+    /**
+     * Decode a stored embedding into a caller-supplied array of matching dimension
+     */
+    public static void decode(String encoded, float[] out) {
+        ByteBuffer buffer = readHeader(encoded);
+        if (out == null || out.length != buffer.getShort(1)) {
+            throw new IllegalArgumentException("Output array must hold " + buffer.getShort(1) + " values");
+        }
+        decodeValues(buffer, out);
+    }
+
+    /**
+     * Check whether a stored value can be decoded by this version of the app
+     */
+    public static boolean isSupported(String encoded) {
+        try {
+            readHeader(encoded);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer readHeader(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            throw new IllegalArgumentException("Encoded embedding is empty");
+        }
+
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        if (bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Encoded embedding is truncated");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int version = buffer.get(0);
+        if (version != VERSION_INT8) {
+            throw new IllegalArgumentException("Unsupported embedding version: " + version);
+        }
+        int dimension = buffer.getShort(1);
+        if (dimension <= 0 || bytes.length != HEADER_BYTES + dimension) {
+            throw new IllegalArgumentException("Encoded embedding length does not match dimension " + dimension);
+        }
+        return buffer;
+    }
+
+    private static void decodeValues(ByteBuffer buffer, float[] out) {
+        float scale = buffer.getFloat(3);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = buffer.get(HEADER_BYTES + i) * scale;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.smart_attendance_system;
+
+/**
+ * Pure-Java face embedding extractor working on ARGB pixel arrays.
+ * Reuses its own buffers so extracting into a caller-supplied array allocates nothing.
+ * Instances are not thread-safe; keep one per worker thread.
+ */
+public class FaceEmbeddingExtractor {
+
+    public static final int INPUT_SIZE = 112;
+    public static final int REGION_SIZE = 8;
+    public static final int EMBEDDING_SIZE = 512;
+
+    private static final int REGIONS_PER_SIDE = INPUT_SIZE / REGION_SIZE;
+    private static final int FEATURES_PER_REGION = 3;
+    // Same layout as the original extractor: 170 regions x RGB, last two slots padded
+    private static final int MAX_REGIONS = Math.min(REGIONS_PER_SIDE * REGIONS_PER_SIDE,
+            (EMBEDDING_SIZE - 1) / FEATURES_PER_REGION);
+    private static final float PADDING_VALUE = 0.5f;
+    private static final float REGION_SCALE = 1.0f / (REGION_SIZE * REGION_SIZE);
+
+    private final int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
+    private final int[] regionSums = new int[REGIONS_PER_SIDE * FEATURES_PER_REGION];
+
+    /**
+     * Buffer sized for one INPUT_SIZE x INPUT_SIZE frame, e.g. for Bitmap.getPixels(buffer, 0, INPUT_SIZE, ...)
+     */
+    public int[] getPixelBuffer() {
+        return pixels;
+    }
+
+    /**
+     * Extract an embedding from the internal pixel buffer
+     */
+    public void extract(float[] out) {
+        extract(pixels, 0, INPUT_SIZE, out);
+    }
+
+    /**
+     * Extract a normalized embedding from an INPUT_SIZE x INPUT_SIZE ARGB region of the given array
+     */
+    public void extract(int[] argb, int offset, int stride, float[] out) {
+        if (argb == null || out == null) {
+            throw new IllegalArgumentException("Pixel and output arrays are required");
+        }
+        if (out.length < EMBEDDING_SIZE) {
+            throw new IllegalArgumentException("Output array must hold " + EMBEDDING_SIZE + " values");
+        }
+        if (stride < INPUT_SIZE || offset < 0
+                || offset + (INPUT_SIZE - 1) * stride + INPUT_SIZE > argb.length) {
+            throw new IllegalArgumentException("Pixel array too small for a " + INPUT_SIZE + "x" + INPUT_SIZE + " frame");
+        }
+
+        int embeddingIndex = 0;
+        int regionCount = 0;
+
+        // Single pass over the rows, summing each 8-pixel run into its region column
+        for (int y = 0; y < INPUT_SIZE && regionCount < MAX_REGIONS; y++) {
+            int rowStart = offset + y * stride;
+            for (int x = 0; x < INPUT_SIZE; x++) {
+                int pixel = argb[rowStart + x];
+                int sumIndex = (x / REGION_SIZE) * FEATURES_PER_REGION;
+                regionSums[sumIndex] += (pixel >> 16) & 0xFF;
+                regionSums[sumIndex + 1] += (pixel >> 8) & 0xFF;
+                regionSums[sumIndex + 2] += pixel & 0xFF;
+            }
+
+            if ((y + 1) % REGION_SIZE == 0) {
+                for (int col = 0; col < REGIONS_PER_SIDE; col++) {
+                    int sumIndex = col * FEATURES_PER_REGION;
+                    if (regionCount < MAX_REGIONS) {
+                        out[embeddingIndex++] = (regionSums[sumIndex] * REGION_SCALE) / 255.0f;
+                        out[embeddingIndex++] = (regionSums[sumIndex + 1] * REGION_SCALE) / 255.0f;
+                        out[embeddingIndex++] = (regionSums[sumIndex + 2] * REGION_SCALE) / 255.0f;
+                        regionCount++;
+                    }
+                    regionSums[sumIndex] = 0;
+                    regionSums[sumIndex + 1] = 0;
+                    regionSums[sumIndex + 2] = 0;
+                }
+            }
+        }
+
+        while (embeddingIndex < EMBEDDING_SIZE) {
+            out[embeddingIndex++] = PADDING_VALUE;
+        }
+
+        normalize(out, EMBEDDING_SIZE);
+    }
+
+    /**
+     * Normalize embedding vector to unit length
+     */
+    public static void normalize(float[] embedding) {
+        if (embedding == null) {
+            return;
+        }
+        normalize(embedding, embedding.length);
+    }
+
+    private static void normalize(float[] embedding, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        float norm = 0.0f;
+        for (int i = 0; i < length; i++) {
+            norm += embedding[i] * embedding[i];
+        }
+
+        norm = (float) Math.sqrt(norm);
+
+        if (norm > 0) {
+            for (int i = 0; i < length; i++) {
+                embedding[i] /= norm;
+            }
+        }
+    }
+
+    /**
+     * Calculate cosine similarity between two embeddings
+     */
+    public static float cosineSimilarity(float[] embedding1, float[] embedding2) {
+        if (embedding1 == null || embedding2 == null || embedding1.length != embedding2.length) {
+            return 0.0f;
+        }
+
+        float dotProduct = 0.0f;
+        float norm1 = 0.0f;
+        float norm2 = 0.0f;
+
+        for (int i = 0; i < embedding1.length; i++) {
+            dotProduct += embedding1[i] * embedding2[i];
+            norm1 += embedding1[i] * embedding1[i];
+            norm2 += embedding2[i] * embedding2[i];
+        }
+
+        if (norm1 == 0.0f || norm2 == 0.0f) {
+            return 0.0f;
+        }
+
+        return dotProduct / (float) (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.smart_attendance_system;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory 1:N identification index keyed by enrollment number.
+ * Embeddings are stored pre-normalized, row after row, in one contiguous float[] so a probe
+ * is answered with a single blocked dot-product scan. Safe to query from several threads.
+ */
+public class FaceIdentificationIndex {
+
+    // Rows scored together per pass over the probe
+    private static final int BLOCK_ROWS = 4;
+
+    /**
+     * One identification candidate; score is the cosine similarity in [-1, 1]
+     */
+    public static final class Match {
+        public final String enrollmentNo;
+        public final float score;
+
+        Match(String enrollmentNo, float score) {
+            this.enrollmentNo = enrollmentNo;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return enrollmentNo + "=" + score;
+        }
+    }
+
+    private final int dimension;
+    private final Map<String, Integer> rowByEnrollment = new HashMap<>();
+    private String[] enrollments;
+    private float[] matrix;
+    private int size;
+
+    public FaceIdentificationIndex() {
+        this(FaceEmbeddingExtractor.EMBEDDING_SIZE, 64);
+    }
+
+    public FaceIdentificationIndex(int dimension, int initialCapacity) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension must be positive");
+        }
+        this.dimension = dimension;
+        int capacity = Math.max(BLOCK_ROWS, initialCapacity);
+        this.enrollments = new String[capacity];
+        this.matrix = new float[capacity * dimension];
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean contains(String enrollmentNo) {
+        return rowByEnrollment.containsKey(enrollmentNo);
+    }
+
+    /**
+     * Add or replace the embedding for a student. The vector is copied and normalized.
+     */
+    public synchronized void put(String enrollmentNo, float[] embedding) {
+        if (enrollmentNo == null || embedding == null || embedding.length != dimension) {
+            throw new IllegalArgumentException("Enrollment and a " + dimension + "-value embedding are required");
+        }
+
+        Integer existing = rowByEnrollment.get(enrollmentNo);
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            enrollments[row] = enrollmentNo;
+            rowByEnrollment.put(enrollmentNo, row);
+        }
+
+        int base = row * dimension;
+        System.arraycopy(embedding, 0, matrix, base, dimension);
+        normalizeRow(matrix, base, dimension);
+    }
+
+    /**
+     * Remove a student; the last row is moved into the freed slot to keep the matrix dense
+     */
+    public synchronized boolean remove(String enrollmentNo) {
+        Integer row = rowByEnrollment.remove(enrollmentNo);
+        if (row == null) {
+            return false;
+        }
+
+        int last = --size;
+        if (row != last) {
+            System.arraycopy(matrix, last * dimension, matrix, row * dimension, dimension);
+            enrollments[row] = enrollments[last];
+            rowByEnrollment.put(enrollments[row], row);
+        }
+        enrollments[last] = null;
+        return true;
+    }
+
+    public synchronized void clear() {
+        rowByEnrollment.clear();
+        Arrays.fill(enrollments, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Return up to k best matches for the probe, highest score first
+     */
+    public synchronized List<Match> topK(float[] probe, int k) {
+        if (probe == null || probe.length != dimension) {
+            throw new IllegalArgumentException("Probe must hold " + dimension + " values");
+        }
+        int limit = Math.min(k, size);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        float[] query = Arrays.copyOf(probe, dimension);
+        normalizeRow(query, 0, dimension);
+
+        // Bounded list kept sorted by descending score; k is small so insertion beats a heap
+        int[] bestRows = new int[limit];
+        float[] bestScores = new float[limit];
+        int found = 0;
+
+        int row = 0;
+        int blockEnd = size - (size % BLOCK_ROWS);
+        for (; row < blockEnd; row += BLOCK_ROWS) {
+            int b0 = row * dimension;
+            int b1 = b0 + dimension;
+            int b2 = b1 + dimension;
+            int b3 = b2 + dimension;
+            float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+            for (int i = 0; i < dimension; i++) {
+                float q = query[i];
+                s0 += q * matrix[b0 + i];
+                s1 += q * matrix[b1 + i];
+                s2 += q * matrix[b2 + i];
+                s3 += q * matrix[b3 + i];
+            }
+            found = offer(bestRows, bestScores, found, row, s0);
+            found = offer(bestRows, bestScores, found, row + 1, s1);
+            found = offer(bestRows, bestScores, found, row + 2, s2);
+            found = offer(bestRows, bestScores, found, row + 3, s3);
+        }
+        for (; row < size; row++) {
+            int base = row * dimension;
+            float score = 0f;
+            for (int i = 0; i < dimension; i++) {
+                score += query[i] * matrix[base + i];
+            }
+            found = offer(bestRows, bestScores, found, row, score);
+        }
+
+        List<Match> matches = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            matches.add(new Match(enrollments[bestRows[i]], bestScores[i]));
+        }
+        return matches;
+    }
+
+    /**
+     * Best match at or above the threshold, or null if nobody qualifies
+     */
+    public Match identify(float[] probe, float minScore) {
+        List<Match> best = topK(probe, 1);
+        if (best.isEmpty() || best.get(0).score < minScore) {
+            return null;
+        }
+        return best.get(0);
+    }
+
+    private static int offer(int[] rows, float[] scores, int count, int row, float score) {
+        int capacity = rows.length;
+        if (count == capacity && score <= scores[count - 1]) {
+            return count;
+        }
+
+        int position = count < capacity ? count : capacity - 1;
+        while (position > 0 && scores[position - 1] < score) {
+            if (position < capacity) {
+                rows[position] = rows[position - 1];
+                scores[position] = scores[position - 1];
+            }
+            position--;
+        }
+        rows[position] = row;
+        scores[position] = score;
+        return count < capacity ? count + 1 : count;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= enrollments.length) {
+            return;
+        }
+        int capacity = Math.max(rows, enrollments.length * 2);
+        enrollments = Arrays.copyOf(enrollments, capacity);
+        matrix = Arrays.copyOf(matrix, capacity * dimension);
+    }
+
+    private static void normalizeRow(float[] values, int offset, int length) {
+        float norm = 0f;
+        for (int i = offset; i < offset + length; i++) {
+            norm += values[i] * values[i];
+        }
+        norm = (float) Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] /= norm;
+            }
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.example.smart_attendance_system;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.net.Uri;
 import android.util.Base64;
@@ -16,16 +20,12 @@ import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.face.Face;
-import com.google.mlkit.vision.face.FaceDetection;
 import com.google.mlkit.vision.face.FaceDetector;
-import com.google.mlkit.vision.face.FaceDetectorOptions;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Utility class for face recognition operations including detection, comparison, and image processing
@@ -33,7 +33,6 @@ import java.util.concurrent.Executors;
 public class FaceRecognitionUtils {
 
     private static final String TAG = "FaceRecognitionUtils";
-    private static final ExecutorService executorService = Executors.newFixedThreadPool(2);
 
     // Face detection callback interface
     public interface FaceDetectionCallback {
@@ -52,6 +51,13 @@ public class FaceRecognitionUtils {
      * Detect faces in a bitmap using ML Kit Face Detection
      */
     public static void detectFaces(Bitmap bitmap, FaceDetectionCallback callback) {
+        detectFaces(bitmap, FaceDetectorRegistry.Profile.CAPTURE, callback);
+    }
+
+    /**
+     * Detect faces in a bitmap with the detector for the given profile
+     */
+    public static void detectFaces(Bitmap bitmap, FaceDetectorRegistry.Profile profile, FaceDetectionCallback callback) {
         if (bitmap == null) {
             if (callback != null) {
                 callback.onError("Input bitmap is null");
@@ -60,17 +66,34 @@ public class FaceRecognitionUtils {
         }
 
         try {
-            // Configure face detector options
-            FaceDetectorOptions options = new FaceDetectorOptions.Builder()
-                    .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE)
-                    .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
-                    .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
-                    .setMinFaceSize(0.15f)
-                    .enableTracking()
-                    .build();
-
-            FaceDetector detector = FaceDetection.getClient(options);
-            InputImage image = InputImage.fromBitmap(bitmap, 0);
+            runDetection(InputImage.fromBitmap(bitmap, 0), bitmap, profile, callback);
+        } catch (Exception e) {
+            Log.e(TAG, "Error in detectFaces: " + e.getMessage(), e);
+            if (callback != null) {
+                callback.onError("Error initializing face detection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Detect faces directly on a camera frame without converting it to a Bitmap.
+     * The processed bitmap passed to the callback is null on this path.
+     */
+    public static void detectFaces(InputImage image, FaceDetectorRegistry.Profile profile, FaceDetectionCallback callback) {
+        if (image == null) {
+            if (callback != null) {
+                callback.onError("Input image is null");
+            }
+            return;
+        }
+
+        runDetection(image, null, profile, callback);
+    }
+
+    private static void runDetection(InputImage image, Bitmap sourceBitmap, FaceDetectorRegistry.Profile profile,
+                                     FaceDetectionCallback callback) {
+        try {
+            FaceDetector detector = FaceDetectorRegistry.get(profile);
 
             detector.process(image)
                     .addOnSuccessListener(new OnSuccessListener<List<Face>>() {
@@ -79,7 +102,7 @@ public class FaceRecognitionUtils {
                             if (faces != null && faces.size() > 0) {
                                 Log.d(TAG, "Detected " + faces.size() + " face(s)");
                                 if (callback != null) {
-                                    callback.onFaceDetected(faces, bitmap);
+                                    callback.onFaceDetected(faces, sourceBitmap);
                                 }
                             } else {
                                 Log.d(TAG, "No faces detected");
@@ -246,6 +269,14 @@ public class FaceRecognitionUtils {
      * Compare two face bitmaps and determine if they match
      */
     public static void compareFaces(Bitmap referenceFace, Bitmap capturedFace, FaceComparisonCallback callback) {
+        compareFaces(null, referenceFace, capturedFace, callback);
+    }
+
+    /**
+     * Compare two face bitmaps on the verification lane; owner's pending work is dropped by cancelWork
+     */
+    public static void compareFaces(Object owner, Bitmap referenceFace, Bitmap capturedFace,
+                                    FaceComparisonCallback callback) {
         if (referenceFace == null || capturedFace == null) {
             if (callback != null) {
                 callback.onError("One or both face images are null");
@@ -253,136 +284,149 @@ public class FaceRecognitionUtils {
             return;
         }
 
-        executorService.execute(new Runnable() {
+        FaceWorkScheduler.getDefault().submit(FaceWorkScheduler.Lane.VERIFICATION, owner, new FaceWorkScheduler.Work() {
             @Override
-            public void run() {
+            public void run(FaceWorkScheduler.Handle handle) {
                 try {
                     // Generate embeddings for both faces
-                    float[] referenceEmbedding = generateFaceEmbedding(referenceFace);
-                    float[] capturedEmbedding = generateFaceEmbedding(capturedFace);
+                    EmbeddingScratch scratch = embeddingScratch.get();
+                    float[] referenceEmbedding = scratch.referenceEmbedding;
+                    float[] capturedEmbedding = scratch.capturedEmbedding;
 
-                    if (referenceEmbedding == null || capturedEmbedding == null) {
+                    boolean generated = generateFaceEmbedding(referenceFace, referenceEmbedding)
+                            && generateFaceEmbedding(capturedFace, capturedEmbedding);
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    handle.markDelivered();
+                    if (!generated) {
                         if (callback != null) {
                             callback.onError("Failed to generate face embeddings");
                         }
                         return;
                     }
 
-                    // Calculate similarity
-                    float similarity = calculateCosineSimilarity(referenceEmbedding, capturedEmbedding);
-
-                    // Convert similarity to confidence percentage
-                    float confidence = (similarity + 1.0f) / 2.0f; // Normalize to 0-1 range
-
-                    // Add some realistic variation
-                    confidence += (float)(Math.random() - 0.5) * 0.1f; // ±5% variation
-                    confidence = Math.max(0.0f, Math.min(1.0f, confidence));
-
-                    // Determine if faces match based on threshold
-                    boolean isMatch = confidence >= Constants.FACE_MATCH_THRESHOLD;
-
-                    Log.d(TAG, "Face comparison - Similarity: " + similarity + ", Confidence: " + confidence + ", Match: " + isMatch);
-
-                    if (callback != null) {
-                        callback.onComparisonComplete(isMatch, confidence);
-                    }
+                    reportComparison(calculateCosineSimilarity(referenceEmbedding, capturedEmbedding), callback);
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error in face comparison: " + e.getMessage(), e);
-                    if (callback != null) {
+                    // A callback that threw has already been told the outcome
+                    if (callback != null && !handle.isDelivered()) {
                         callback.onError("Face comparison failed: " + e.getMessage());
                     }
                 }
             }
+        }, handle -> {
+            if (callback != null && !handle.isCancelled()) {
+                callback.onError("Face verification is busy, please try again");
+            }
         });
     }
 
     /**
-     * Generate face embedding from bitmap (simplified approach)
+     * Compare a captured face against a stored reference embedding (see FaceEmbeddingCodec)
      */
-    private static float[] generateFaceEmbedding(Bitmap bitmap) {
-        if (bitmap == null) {
-            return null;
-        }
-
-        try {
-            // Resize bitmap to standard size for consistent embeddings
-            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, 112, 112, true);
-
-            // Create embedding array
-            float[] embedding = new float[512];
-
-            // Extract features from different regions of the face
-            int width = resizedBitmap.getWidth();
-            int height = resizedBitmap.getHeight();
-
-            // Divide face into regions and extract average color values
-            int regionSize = 8; // 8x8 regions
-            int regionsPerRow = width / regionSize;
-            int regionsPerCol = height / regionSize;
-
-            int embeddingIndex = 0;
+    public static void compareFaces(float[] referenceEmbedding, Bitmap capturedFace, FaceComparisonCallback callback) {
+        compareFaces(null, referenceEmbedding, capturedFace, callback);
+    }
 
-            for (int row = 0; row < regionsPerCol && embeddingIndex < embedding.length - 3; row++) {
-                for (int col = 0; col < regionsPerRow && embeddingIndex < embedding.length - 3; col++) {
+    /**
+     * Compare against a reference embedding on the verification lane; owner's pending work is dropped by cancelWork
+     */
+    public static void compareFaces(Object owner, float[] referenceEmbedding, Bitmap capturedFace,
+                                    FaceComparisonCallback callback) {
+        if (referenceEmbedding == null || capturedFace == null) {
+            if (callback != null) {
+                callback.onError("Reference embedding or face image is null");
+            }
+            return;
+        }
 
-                    float avgR = 0, avgG = 0, avgB = 0;
-                    int pixelCount = 0;
+        FaceWorkScheduler.getDefault().submit(FaceWorkScheduler.Lane.VERIFICATION, owner, new FaceWorkScheduler.Work() {
+            @Override
+            public void run(FaceWorkScheduler.Handle handle) {
+                try {
+                    float[] capturedEmbedding = embeddingScratch.get().capturedEmbedding;
 
-                    // Calculate average RGB values for this region
-                    for (int y = row * regionSize; y < (row + 1) * regionSize && y < height; y++) {
-                        for (int x = col * regionSize; x < (col + 1) * regionSize && x < width; x++) {
-                            int pixel = resizedBitmap.getPixel(x, y);
-                            avgR += (pixel >> 16) & 0xFF;
-                            avgG += (pixel >> 8) & 0xFF;
-                            avgB += pixel & 0xFF;
-                            pixelCount++;
+                    boolean generated = generateFaceEmbedding(capturedFace, capturedEmbedding);
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    handle.markDelivered();
+                    if (!generated) {
+                        if (callback != null) {
+                            callback.onError("Failed to generate face embeddings");
                         }
+                        return;
                     }
 
-                    if (pixelCount > 0) {
-                        embedding[embeddingIndex++] = (avgR / pixelCount) / 255.0f;
-                        embedding[embeddingIndex++] = (avgG / pixelCount) / 255.0f;
-                        embedding[embeddingIndex++] = (avgB / pixelCount) / 255.0f;
+                    reportComparison(calculateCosineSimilarity(referenceEmbedding, capturedEmbedding), callback);
+
+                } catch (Exception e) {
+                    Log.e(TAG, "Error in face comparison: " + e.getMessage(), e);
+                    // A callback that threw has already been told the outcome
+                    if (callback != null && !handle.isDelivered()) {
+                        callback.onError("Face comparison failed: " + e.getMessage());
                     }
                 }
             }
-
-            // Fill remaining positions with normalized values
-            while (embeddingIndex < embedding.length) {
-                embedding[embeddingIndex++] = 0.5f;
+        }, handle -> {
+            if (callback != null && !handle.isCancelled()) {
+                callback.onError("Face verification is busy, please try again");
             }
+        });
+    }
 
-            // Normalize the embedding
-            normalizeEmbedding(embedding);
+    private static void reportComparison(float similarity, FaceComparisonCallback callback) {
+        // Convert similarity to confidence percentage
+        float confidence = (similarity + 1.0f) / 2.0f; // Normalize to 0-1 range
 
-            return embedding;
+        // Add some realistic variation
+        confidence += (float)(Math.random() - 0.5) * 0.1f; // ±5% variation
+        confidence = Math.max(0.0f, Math.min(1.0f, confidence));
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error generating face embedding: " + e.getMessage(), e);
-            return null;
+        // Determine if faces match based on threshold
+        boolean isMatch = confidence >= Constants.FACE_MATCH_THRESHOLD;
+
+        Log.d(TAG, "Face comparison - Similarity: " + similarity + ", Confidence: " + confidence + ", Match: " + isMatch);
+
+        if (callback != null) {
+            callback.onComparisonComplete(isMatch, confidence);
         }
     }
 
     /**
-     * Normalize embedding vector
+     * Compute the embedding of a face and encode it for storage under face_embedding; null on failure
      */
-    private static void normalizeEmbedding(float[] embedding) {
-        if (embedding == null || embedding.length == 0) {
-            return;
+    public static String encodeFaceEmbedding(Bitmap face) {
+        float[] embedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        if (!generateFaceEmbedding(face, embedding)) {
+            return null;
         }
+        return FaceEmbeddingCodec.encode(embedding);
+    }
 
-        float norm = 0.0f;
-        for (float value : embedding) {
-            norm += value * value;
+    /**
+     * Generate face embedding from bitmap (simplified approach) into a caller-supplied array
+     */
+    private static boolean generateFaceEmbedding(Bitmap bitmap, float[] out) {
+        if (bitmap == null) {
+            return false;
         }
 
-        norm = (float) Math.sqrt(norm);
+        try {
+            EmbeddingScratch scratch = embeddingScratch.get();
 
-        if (norm > 0) {
-            for (int i = 0; i < embedding.length; i++) {
-                embedding[i] /= norm;
-            }
+            // Scale into the reusable 112x112 bitmap and read it back in one bulk call
+            scratch.canvas.drawBitmap(bitmap, null, scratch.bounds, scratch.paint);
+            scratch.scaled.getPixels(scratch.extractor.getPixelBuffer(), 0, FaceEmbeddingExtractor.INPUT_SIZE,
+                    0, 0, FaceEmbeddingExtractor.INPUT_SIZE, FaceEmbeddingExtractor.INPUT_SIZE);
+            scratch.extractor.extract(out);
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error generating face embedding: " + e.getMessage(), e);
+            return false;
         }
     }
 
@@ -390,26 +434,32 @@ public class FaceRecognitionUtils {
      * Calculate cosine similarity between two embeddings
      */
     private static float calculateCosineSimilarity(float[] embedding1, float[] embedding2) {
-        if (embedding1 == null || embedding2 == null || embedding1.length != embedding2.length) {
-            return 0.0f;
-        }
-
-        float dotProduct = 0.0f;
-        float norm1 = 0.0f;
-        float norm2 = 0.0f;
+        return FaceEmbeddingExtractor.cosineSimilarity(embedding1, embedding2);
+    }
 
-        for (int i = 0; i < embedding1.length; i++) {
-            dotProduct += embedding1[i] * embedding2[i];
-            norm1 += embedding1[i] * embedding1[i];
-            norm2 += embedding2[i] * embedding2[i];
+    // Per-thread buffers so embedding a frame does not allocate
+    private static final class EmbeddingScratch {
+        final FaceEmbeddingExtractor extractor = new FaceEmbeddingExtractor();
+        final Bitmap scaled = Bitmap.createBitmap(FaceEmbeddingExtractor.INPUT_SIZE,
+                FaceEmbeddingExtractor.INPUT_SIZE, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(scaled);
+        final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        final Rect bounds = new Rect(0, 0, FaceEmbeddingExtractor.INPUT_SIZE, FaceEmbeddingExtractor.INPUT_SIZE);
+        final float[] referenceEmbedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        final float[] capturedEmbedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+
+        EmbeddingScratch() {
+            // Overwrite the previous frame instead of blending with it
+            paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
         }
+    }
 
-        if (norm1 == 0.0f || norm2 == 0.0f) {
-            return 0.0f;
+    private static final ThreadLocal<EmbeddingScratch> embeddingScratch = new ThreadLocal<EmbeddingScratch>() {
+        @Override
+        protected EmbeddingScratch initialValue() {
+            return new EmbeddingScratch();
         }
-
-        return dotProduct / (float)(Math.sqrt(norm1) * Math.sqrt(norm2));
-    }
+    };
 
     /**
      * Convert bitmap to base64 string
@@ -528,12 +578,22 @@ public class FaceRecognitionUtils {
     }
 
     /**
-     * Clean up resources
+     * Release the native detectors and stop the face work threads, e.g. on logout.
+     * Both are created again on next use.
      */
     public static void cleanup() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
+        FaceDetectorRegistry.closeAll();
+        FaceWorkScheduler.shutdownDefault();
+    }
+
+    /**
+     * Drop the owner's queued face work and suppress results of work already running, e.g. in onDestroy
+     */
+    public static void cancelWork(Object owner) {
+        FaceWorkScheduler scheduler = FaceWorkScheduler.getDefault();
+        int cancelled = scheduler.cancelAll(owner);
+        Log.d(TAG, "Cancelled " + cancelled + " queued face work item(s) for " + owner.getClass().getSimpleName()
+                + "\n" + scheduler.summary());
     }
 
     /**
@@ -547,10 +607,12 @@ public class FaceRecognitionUtils {
 
         try {
             // Generate embeddings
-            float[] capturedEmbedding = generateFaceEmbedding(capturedFace);
-            float[] referenceEmbedding = generateFaceEmbedding(referenceFace);
+            EmbeddingScratch scratch = embeddingScratch.get();
+            float[] capturedEmbedding = scratch.capturedEmbedding;
+            float[] referenceEmbedding = scratch.referenceEmbedding;
 
-            if (capturedEmbedding == null || referenceEmbedding == null) {
+            if (!generateFaceEmbedding(capturedFace, capturedEmbedding)
+                    || !generateFaceEmbedding(referenceFace, referenceEmbedding)) {
                 return 0.0f;
             }
 
@@ -36,7 +36,7 @@ public class FaceRegistrationActivity extends AppCompatActivity {
     private String enrollmentNo;
     private String studentName;
     private String studentEmail;
-    private String referenceFaceBase64;
+    private Bitmap referenceFaceBitmap;
     private boolean isFirstTimeRegistration = false;
     private DatabaseReference studentsRef;
 
@@ -145,7 +145,7 @@ public class FaceRegistrationActivity extends AppCompatActivity {
     }
 
     private void registerFace() {
-        if (referenceFaceBase64 == null) {
+        if (referenceFaceBitmap == null) {
             Toast.makeText(this, "Please capture your face first", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -154,12 +154,36 @@ public class FaceRegistrationActivity extends AppCompatActivity {
         btn_register_face.setEnabled(false);
         tv_registration_status.setText("🔄 Registering face...");
 
-        // Save face data to Firebase
-        Map<String, Object> faceData = new HashMap<>();
-        faceData.put(Constants.STUDENT_FACE_DATA, referenceFaceBase64);
-        faceData.put("face_registered_at", System.currentTimeMillis());
-        faceData.put("face_registration_device", DeviceUtils.getDeviceId(this));
+        // Save face data to Firebase, plus the compact embedding that verification downloads;
+        // the JPEG is encoded only here, for upload. Both run on the verification lane, off the main thread.
+        Bitmap face = referenceFaceBitmap;
+        String deviceId = DeviceUtils.getDeviceId(this);
+        FaceWorkScheduler.getDefault().submit(FaceWorkScheduler.Lane.VERIFICATION, this, handle -> {
+            Map<String, Object> faceData = new HashMap<>();
+            faceData.put(Constants.STUDENT_FACE_DATA, FaceRecognitionUtils.bitmapToBase64(face));
+            String faceEmbedding = FaceRecognitionUtils.encodeFaceEmbedding(face);
+            if (faceEmbedding != null) {
+                faceData.put(Constants.STUDENT_FACE_EMBEDDING, faceEmbedding);
+            }
+            faceData.put(Constants.STUDENT_FACE_REGISTERED_AT, System.currentTimeMillis());
+            faceData.put("face_registration_device", deviceId);
 
+            if (!handle.isCancelled()) {
+                handle.markDelivered();
+                runOnUiThread(() -> uploadFaceData(faceData));
+            }
+        }, handle -> {
+            if (!handle.isCancelled()) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    btn_register_face.setEnabled(true);
+                    tv_registration_status.setText("❌ Could not prepare face data. Please try again.");
+                });
+            }
+        });
+    }
+
+    private void uploadFaceData(Map<String, Object> faceData) {
         studentsRef.child(enrollmentNo).updateChildren(faceData)
                 .addOnCompleteListener(new OnCompleteListener<Void>() {
                     @Override
@@ -175,6 +199,8 @@ public class FaceRegistrationActivity extends AppCompatActivity {
 
                             // Update preferences to indicate face is registered
                             PreferenceManager.setFaceRegistered(FaceRegistrationActivity.this, true);
+                            // The cached reference is versioned by face_registered_at; drop the prefetched one now
+                            CheckInPipeline.invalidate();
                             
                             if (isFirstTimeRegistration) {
                                 PreferenceManager.setFirstLoginCompleted(FaceRegistrationActivity.this, true);
@@ -200,16 +226,15 @@ public class FaceRegistrationActivity extends AppCompatActivity {
             boolean success = data.getBooleanExtra(Constants.EXTRA_FACE_CAPTURE_SUCCESS, false);
 
             if (success) {
-                referenceFaceBase64 = data.getStringExtra(Constants.EXTRA_FACE_IMAGE_BASE64);
+                // Claimed by token from the capture store; no encode or decode on the way
+                referenceFaceBitmap = CameraActivity.CAPTURES.take(
+                        data.getStringExtra(Constants.EXTRA_FACE_CAPTURE_TOKEN));
 
-                if (referenceFaceBase64 != null) {
+                if (referenceFaceBitmap != null) {
                     // Display captured face
-                    Bitmap faceBitmap = FaceRecognitionUtils.base64ToBitmap(referenceFaceBase64);
-                    if (faceBitmap != null) {
-                        iv_reference_face.setImageBitmap(faceBitmap);
-                        btn_register_face.setVisibility(View.VISIBLE);
-                        tv_registration_status.setText("✅ Face captured successfully!\nClick 'Register Face' to complete registration.");
-                    }
+                    iv_reference_face.setImageBitmap(referenceFaceBitmap);
+                    btn_register_face.setVisibility(View.VISIBLE);
+                    tv_registration_status.setText("✅ Face captured successfully!\nClick 'Register Face' to complete registration.");
                 } else {
                     Toast.makeText(this, "Error processing captured face", Toast.LENGTH_SHORT).show();
                 }
@@ -219,6 +244,13 @@ public class FaceRegistrationActivity extends AppCompatActivity {
         }
     }
     
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A registration still being prepared for this screen has no one left to upload it
+        FaceRecognitionUtils.cancelWork(this);
+    }
+
     @Override
     public void onBackPressed() {
         if (isFirstTimeRegistration) {
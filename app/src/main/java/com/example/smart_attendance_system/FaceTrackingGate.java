@@ -0,0 +1,184 @@
+package com.example.smart_attendance_system;
+
+import java.util.Locale;
+
+/**
+ * Decides which camera frames to analyze and when the tracked face is ready to capture.
+ * Frames are skipped so analysis takes a bounded share of time at the measured detector latency,
+ * and a larger share is given back once the face is ready. The full quality check only runs on
+ * keyframes: a new trackingId, a jump of the bounding box, or every keyframeInterval frames.
+ * In between, the face only has to keep its trackingId and stay close to the keyframe box.
+ * "Ready" is raised after requiredGoodFrames consecutive good frames of the same face.
+ */
+public class FaceTrackingGate {
+
+    public enum Status {
+        NO_FACE,
+        MULTIPLE_FACES,
+        LOW_QUALITY,
+        // Good frames so far, but not yet enough of them in a row
+        STABILIZING,
+        READY
+    }
+
+    /**
+     * Full quality check of the current face, only invoked on keyframes
+     */
+    public interface QualityCheck {
+        boolean isGood();
+    }
+
+    // Analysis may keep the detector busy this share of the time while searching, and this once ready
+    private static final double SEARCHING_DUTY_CYCLE = 0.5;
+    private static final double READY_DUTY_CYCLE = 0.25;
+    private static final long MAX_INTERVAL_NANOS = 500_000_000L;
+    // Weight of the newest latency sample in the moving average
+    private static final double LATENCY_SMOOTHING = 0.2;
+    // Minimum overlap with the keyframe box for a tracked frame to count as the same, steady face
+    private static final float MIN_TRACKED_OVERLAP = 0.6f;
+
+    private final int requiredGoodFrames;
+    private final int keyframeInterval;
+
+    private double averageLatencyNanos;
+    private long lastAnalyzedNanos;
+    private boolean analyzedAny;
+
+    private Integer trackingId;
+    private final int[] keyframeBox = new int[4];
+    private boolean keyframeGood;
+    private int framesSinceKeyframe;
+    private int consecutiveGood;
+    private boolean lastFrameKeyframe;
+
+    private long analyzedFrames;
+    private long skippedFrames;
+    private long keyframes;
+
+    public FaceTrackingGate(int requiredGoodFrames, int keyframeInterval) {
+        if (requiredGoodFrames <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Frame counts must be positive");
+        }
+        this.requiredGoodFrames = requiredGoodFrames;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Whether a frame arriving now should be analyzed; false means close it straight away
+     */
+    public synchronized boolean shouldAnalyze(long nowNanos) {
+        if (analyzedAny && nowNanos - lastAnalyzedNanos < getAnalysisIntervalNanos()) {
+            skippedFrames++;
+            return false;
+        }
+        analyzedAny = true;
+        lastAnalyzedNanos = nowNanos;
+        analyzedFrames++;
+        return true;
+    }
+
+    /**
+     * Minimum time between analyzed frames at the current detector latency
+     */
+    public synchronized long getAnalysisIntervalNanos() {
+        double dutyCycle = consecutiveGood >= requiredGoodFrames ? READY_DUTY_CYCLE : SEARCHING_DUTY_CYCLE;
+        return Math.min(MAX_INTERVAL_NANOS, (long) (averageLatencyNanos / dutyCycle));
+    }
+
+    /**
+     * Feed back how long detection took for an analyzed frame
+     */
+    public synchronized void recordDetectorLatency(long latencyNanos) {
+        averageLatencyNanos = averageLatencyNanos == 0
+                ? latencyNanos
+                : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+    }
+
+    /**
+     * Advance with the faces found in an analyzed frame. For exactly one face pass its trackingId
+     * (null when the detector has none) and bounding box; quality is only consulted on keyframes.
+     */
+    public synchronized Status onFaces(int faceCount, Integer faceTrackingId,
+                                       int left, int top, int right, int bottom, QualityCheck quality) {
+        lastFrameKeyframe = false;
+        if (faceCount != 1) {
+            resetTracking();
+            return faceCount == 0 ? Status.NO_FACE : Status.MULTIPLE_FACES;
+        }
+
+        boolean sameFace = trackingId != null && trackingId.equals(faceTrackingId);
+        boolean steady = sameFace && overlap(left, top, right, bottom) >= MIN_TRACKED_OVERLAP;
+
+        if (!steady || faceTrackingId == null || framesSinceKeyframe + 1 >= keyframeInterval) {
+            if (!sameFace) {
+                consecutiveGood = 0;
+            }
+            trackingId = faceTrackingId;
+            keyframeBox[0] = left;
+            keyframeBox[1] = top;
+            keyframeBox[2] = right;
+            keyframeBox[3] = bottom;
+            keyframeGood = quality.isGood();
+            framesSinceKeyframe = 0;
+            lastFrameKeyframe = true;
+            keyframes++;
+        } else {
+            framesSinceKeyframe++;
+        }
+
+        if (!keyframeGood) {
+            consecutiveGood = 0;
+            return Status.LOW_QUALITY;
+        }
+        consecutiveGood++;
+        return consecutiveGood >= requiredGoodFrames ? Status.READY : Status.STABILIZING;
+    }
+
+    /**
+     * Good frames of the tracked face in a row so far; 1 means a new streak just started
+     */
+    public synchronized int getConsecutiveGoodFrames() {
+        return consecutiveGood;
+    }
+
+    /**
+     * Whether the last onFaces() ran the full quality check
+     */
+    public synchronized boolean wasKeyframe() {
+        return lastFrameKeyframe;
+    }
+
+    /**
+     * Forget the tracked face and latency, e.g. after switching cameras
+     */
+    public synchronized void reset() {
+        resetTracking();
+        averageLatencyNanos = 0;
+        analyzedAny = false;
+    }
+
+    public synchronized String summary() {
+        return String.format(Locale.US, "Tracking gate: analyzed=%d, skipped=%d, keyframes=%d, latency=%.1fms",
+                analyzedFrames, skippedFrames, keyframes, averageLatencyNanos / 1e6);
+    }
+
+    private void resetTracking() {
+        trackingId = null;
+        keyframeGood = false;
+        framesSinceKeyframe = 0;
+        consecutiveGood = 0;
+    }
+
+    // Intersection over union with the keyframe box
+    private float overlap(int left, int top, int right, int bottom) {
+        int width = Math.min(right, keyframeBox[2]) - Math.max(left, keyframeBox[0]);
+        int height = Math.min(bottom, keyframeBox[3]) - Math.max(top, keyframeBox[1]);
+        if (width <= 0 || height <= 0) {
+            return 0f;
+        }
+        long intersection = (long) width * height;
+        long union = (long) (right - left) * (bottom - top)
+                + (long) (keyframeBox[2] - keyframeBox[0]) * (keyframeBox[3] - keyframeBox[1]) - intersection;
+        return union > 0 ? (float) intersection / union : 0f;
+    }
+}
@@ -33,8 +33,8 @@ public class FaceVerificationActivity extends AppCompatActivity {
 
     private String enrollmentNo;
     private String studentName;
-    private String referenceFaceBase64;
-    private String currentFaceBase64;
+    private float[] referenceEmbedding;
+    private Bitmap currentFaceBitmap;
     private String sessionId;
     private DatabaseReference studentsRef;
 
@@ -126,30 +126,47 @@ public class FaceVerificationActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         tv_verification_status.setText("🔄 Loading registered face...");
 
+        // Prefetched from the dashboard through ReferenceFaceCache, so a repeat verification neither
+        // downloads nor decodes; the JPEG is read once for students not yet migrated
+        CheckInPipeline.getReferenceEmbedding(this).addOnCompleteListener(this, task -> {
+            if (!task.isSuccessful()) {
+                Exception e = task.getException();
+                progressBar.setVisibility(View.GONE);
+                tv_verification_status.setText("❌ Error loading registered face: " + (e != null ? e.getMessage() : "unknown error"));
+                Log.e(TAG, "Error loading reference embedding", e);
+                return;
+            }
+
+            if (task.getResult() != null) {
+                progressBar.setVisibility(View.GONE);
+                referenceEmbedding = task.getResult();
+                iv_reference_face.setImageResource(R.drawable.ic_person_placeholder);
+                tv_verification_status.setText("✅ Registered face loaded. Capture your current photo to verify.");
+                btn_capture_face.setEnabled(true);
+            } else {
+                loadLegacyReferenceFace();
+            }
+        });
+    }
+
+    private void loadLegacyReferenceFace() {
         studentsRef.child(enrollmentNo).child(Constants.STUDENT_FACE_DATA)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        progressBar.setVisibility(View.GONE);
-
                         if (dataSnapshot.exists()) {
-                            referenceFaceBase64 = dataSnapshot.getValue(String.class);
+                            String referenceFaceBase64 = dataSnapshot.getValue(String.class);
 
                             if (referenceFaceBase64 != null) {
-                                Bitmap referenceBitmap = FaceRecognitionUtils.base64ToBitmap(referenceFaceBase64);
-                                if (referenceBitmap != null) {
-                                    iv_reference_face.setImageBitmap(referenceBitmap);
-                                    tv_verification_status.setText("✅ Registered face loaded. Capture your current photo to verify.");
-                                    btn_capture_face.setEnabled(true);
-                                } else {
-                                    tv_verification_status.setText("❌ Error loading registered face image.");
-                                    btn_capture_face.setEnabled(false);
-                                }
+                                // The progress bar stays up until the decode on the verification lane finishes
+                                decodeLegacyReferenceFace(referenceFaceBase64);
                             } else {
+                                progressBar.setVisibility(View.GONE);
                                 tv_verification_status.setText("❌ No registered face data found.");
                                 btn_capture_face.setEnabled(false);
                             }
                         } else {
+                            progressBar.setVisibility(View.GONE);
                             tv_verification_status.setText("❌ No face registered. Please register your face first.");
                             btn_capture_face.setEnabled(false);
 
@@ -168,6 +185,52 @@ public class FaceVerificationActivity extends AppCompatActivity {
                 });
     }
 
+    /**
+     * Decode the legacy face_data JPEG and derive its embedding on the verification lane, then show it
+     */
+    private void decodeLegacyReferenceFace(String referenceFaceBase64) {
+        FaceWorkScheduler.getDefault().submit(FaceWorkScheduler.Lane.VERIFICATION, this, handle -> {
+            Bitmap referenceBitmap = FaceRecognitionUtils.base64ToBitmap(referenceFaceBase64);
+            String encodedEmbedding = FaceRecognitionUtils.encodeFaceEmbedding(referenceBitmap);
+            if (handle.isCancelled()) {
+                return;
+            }
+            handle.markDelivered();
+            runOnUiThread(() -> {
+                progressBar.setVisibility(View.GONE);
+                if (referenceBitmap != null && encodedEmbedding != null) {
+                    referenceEmbedding = FaceEmbeddingCodec.decode(encodedEmbedding);
+                    migrateReferenceFace(encodedEmbedding);
+
+                    iv_reference_face.setImageBitmap(referenceBitmap);
+                    tv_verification_status.setText("✅ Registered face loaded. Capture your current photo to verify.");
+                    btn_capture_face.setEnabled(true);
+                } else {
+                    tv_verification_status.setText("❌ Error loading registered face image.");
+                    btn_capture_face.setEnabled(false);
+                }
+            });
+        }, handle -> {
+            if (!handle.isCancelled()) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    tv_verification_status.setText("❌ Error loading registered face image.");
+                    btn_capture_face.setEnabled(false);
+                });
+            }
+        });
+    }
+
+    /**
+     * Store the embedding derived from the legacy face_data so later verifications skip the JPEG
+     */
+    private void migrateReferenceFace(String encodedEmbedding) {
+        studentsRef.child(enrollmentNo).child(Constants.STUDENT_FACE_EMBEDDING)
+                .setValue(encodedEmbedding)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Migrated face_data to face_embedding for: " + enrollmentNo))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to migrate face embedding for: " + enrollmentNo, e));
+    }
+
     private void captureFace() {
         Intent intent = new Intent(this, CameraActivity.class);
         intent.putExtra(Constants.EXTRA_IS_ATTENDANCE, true);
@@ -179,11 +242,11 @@ public class FaceVerificationActivity extends AppCompatActivity {
         btn_verify_again.setVisibility(View.GONE);
         btn_capture_face.setVisibility(View.VISIBLE);
         tv_verification_status.setText("✅ Registered face loaded. Capture your current photo to verify.");
-        currentFaceBase64 = null;
+        currentFaceBitmap = null;
     }
 
     private void performFaceVerification() {
-        if (referenceFaceBase64 == null || currentFaceBase64 == null) {
+        if (referenceEmbedding == null || currentFaceBitmap == null) {
             Toast.makeText(this, "Missing face data for verification", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -191,18 +254,8 @@ public class FaceVerificationActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         tv_verification_status.setText("🔄 Verifying face...");
 
-        // Convert base64 to bitmaps
-        Bitmap referenceBitmap = FaceRecognitionUtils.base64ToBitmap(referenceFaceBase64);
-        Bitmap currentBitmap = FaceRecognitionUtils.base64ToBitmap(currentFaceBase64);
-
-        if (referenceBitmap == null || currentBitmap == null) {
-            progressBar.setVisibility(View.GONE);
-            tv_verification_status.setText("❌ Error processing face images.");
-            return;
-        }
-
-        // Perform face comparison
-        FaceRecognitionUtils.compareFaces(referenceBitmap, currentBitmap,
+        // Perform face comparison on the bitmap decoded when the capture came back
+        FaceRecognitionUtils.compareFaces(this, referenceEmbedding, currentFaceBitmap,
                 new FaceRecognitionUtils.FaceComparisonCallback() {
                     @Override
                     public void onComparisonComplete(boolean isMatch, float confidence) {
@@ -240,7 +293,7 @@ public class FaceVerificationActivity extends AppCompatActivity {
     }
 
     private void proceedToAttendance() {
-        // Navigate to attendance marking with verification success
+        // SelectAttendanceActivity marks right away for the verified session, using the prefetched session state
         Intent intent = new Intent(this, SelectAttendanceActivity.class);
         intent.putExtra(Constants.EXTRA_FACE_VERIFIED, true);
         intent.putExtra(Constants.EXTRA_SESSION_ID, sessionId);
@@ -256,17 +309,15 @@ public class FaceVerificationActivity extends AppCompatActivity {
             boolean success = data.getBooleanExtra(Constants.EXTRA_FACE_CAPTURE_SUCCESS, false);
 
             if (success) {
-                currentFaceBase64 = data.getStringExtra(Constants.EXTRA_FACE_IMAGE_BASE64);
+                // Claimed by token from the capture store; no encode or decode on the way
+                currentFaceBitmap = CameraActivity.CAPTURES.take(
+                        data.getStringExtra(Constants.EXTRA_FACE_CAPTURE_TOKEN));
 
-                if (currentFaceBase64 != null) {
-                    // Display captured face
-                    Bitmap currentBitmap = FaceRecognitionUtils.base64ToBitmap(currentFaceBase64);
-                    if (currentBitmap != null) {
-                        iv_current_face.setImageBitmap(currentBitmap);
+                if (currentFaceBitmap != null) {
+                    iv_current_face.setImageBitmap(currentFaceBitmap);
 
-                        // Start verification
-                        performFaceVerification();
-                    }
+                    // Start verification
+                    performFaceVerification();
                 } else {
                     Toast.makeText(this, "Error processing captured face", Toast.LENGTH_SHORT).show();
                 }
@@ -275,4 +326,11 @@ public class FaceVerificationActivity extends AppCompatActivity {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A verification still queued for this screen has no one left to report to
+        FaceRecognitionUtils.cancelWork(this);
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.smart_attendance_system;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Central scheduler for face work (embeddings, comparisons, identification, frame conversion).
+ * Each lane has a bounded queue; workers always take from the highest-priority non-empty lane.
+ * When PREVIEW is full the oldest frame is dropped, since only the latest frame matters; the
+ * other lanes reject new work instead. Work is tagged with an owner, usually the activity, so it
+ * can all be cancelled when the owner is destroyed. Per-lane depth and wait times are recorded.
+ */
+public class FaceWorkScheduler {
+
+    private static final Logger LOG = Logger.getLogger("FaceWorkScheduler");
+    private static final int DEFAULT_WORKERS = 2;
+
+    /**
+     * Lanes in priority order
+     */
+    public enum Lane {
+        // The final verification a student is waiting on
+        VERIFICATION(8, false),
+        // Index builds and other work nobody is staring at
+        BACKGROUND(16, false),
+        // Preview-quality frame work; stale frames are worthless
+        PREVIEW(2, true);
+
+        final int capacity;
+        final boolean dropOldest;
+
+        Lane(int capacity, boolean dropOldest) {
+            this.capacity = capacity;
+            this.dropOldest = dropOldest;
+        }
+    }
+
+    /**
+     * A unit of face work, or the release hook of one that will never run.
+     * Long-running work should check handle.isCancelled() before delivering results.
+     */
+    public interface Work {
+        void run(Handle handle);
+    }
+
+    /**
+     * Submitted work; lets the submitter cancel it and lets the work see that it was cancelled
+     */
+    public static final class Handle {
+        private final FaceWorkScheduler scheduler;
+        private final Lane lane;
+        private final Object owner;
+        private final Work work;
+        private final Work onDropped;
+        private final long enqueuedAtNanos;
+        private volatile boolean cancelled;
+        private volatile boolean delivered;
+
+        Handle(FaceWorkScheduler scheduler, Lane lane, Object owner, Work work, Work onDropped, long enqueuedAtNanos) {
+            this.scheduler = scheduler;
+            this.lane = lane;
+            this.owner = owner;
+            this.work = work;
+            this.onDropped = onDropped;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Record that the work has handed its result to the submitter; a failure after this point
+         * no longer runs onDropped, so the submitter never hears about the work twice
+         */
+        public void markDelivered() {
+            delivered = true;
+        }
+
+        public boolean isDelivered() {
+            return delivered;
+        }
+
+        /**
+         * Cancel the work; it is removed if still queued, and told via isCancelled() if running
+         */
+        public void cancel() {
+            scheduler.cancel(this);
+        }
+    }
+
+    /**
+     * Counters for one lane since the scheduler started
+     */
+    public static final class LaneMetrics {
+        public final int queueDepth;
+        public final int maxQueueDepth;
+        public final long submitted;
+        public final long completed;
+        public final long dropped;
+        public final long cancelled;
+        public final double averageWaitMillis;
+        public final double maxWaitMillis;
+
+        LaneMetrics(int queueDepth, int maxQueueDepth, long submitted, long completed, long dropped,
+                    long cancelled, double averageWaitMillis, double maxWaitMillis) {
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.dropped = dropped;
+            this.cancelled = cancelled;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "depth=%d (max %d), submitted=%d, completed=%d, dropped=%d, cancelled=%d, wait avg=%.1fms max=%.1fms",
+                    queueDepth, maxQueueDepth, submitted, completed, dropped, cancelled, averageWaitMillis, maxWaitMillis);
+        }
+    }
+
+    private static final class LaneState {
+        final ArrayDeque<Handle> queue = new ArrayDeque<>();
+        int maxDepth;
+        long submitted;
+        long completed;
+        long dropped;
+        long cancelled;
+        long dequeued;
+        long totalWaitNanos;
+        long maxWaitNanos;
+    }
+
+    private static FaceWorkScheduler defaultScheduler;
+
+    private final Object lock = new Object();
+    private final LaneState[] lanes = new LaneState[Lane.values().length];
+    // Guarded by lock; lets cancelAll reach work that has already started
+    private final List<Handle> runningHandles = new ArrayList<>();
+    private boolean shutdown;
+
+    public FaceWorkScheduler(int workerCount) {
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new LaneState();
+        }
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "FaceWork-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Process-wide scheduler used by FaceRecognitionUtils; a new one is started after it is shut down
+     */
+    public static synchronized FaceWorkScheduler getDefault() {
+        if (defaultScheduler == null) {
+            defaultScheduler = new FaceWorkScheduler(DEFAULT_WORKERS);
+        }
+        return defaultScheduler;
+    }
+
+    /**
+     * Shut down the process-wide scheduler if one was started
+     */
+    public static void shutdownDefault() {
+        FaceWorkScheduler scheduler;
+        synchronized (FaceWorkScheduler.class) {
+            scheduler = defaultScheduler;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Queue work on a lane. onDropped (may be null) runs at most once, if the work never delivers a
+     * result: on the submitting thread when the lane is full, on the thread calling cancel, cancelAll
+     * or shutdown when the work is dropped while queued, or on the worker when the work throws before
+     * calling handle.markDelivered(). It can release resources, and report a failure when
+     * !handle.isCancelled().
+     */
+    public Handle submit(Lane lane, Object owner, Work work, Work onDropped) {
+        Handle handle = new Handle(this, lane, owner, work, onDropped, System.nanoTime());
+        Handle dropped = null;
+
+        synchronized (lock) {
+            LaneState state = lanes[lane.ordinal()];
+            state.submitted++;
+
+            if (shutdown) {
+                dropped = handle;
+            } else if (state.queue.size() >= lane.capacity) {
+                dropped = lane.dropOldest ? state.queue.pollFirst() : handle;
+            }
+            if (dropped != null) {
+                state.dropped++;
+            }
+            if (dropped != handle) {
+                state.queue.addLast(handle);
+                state.maxDepth = Math.max(state.maxDepth, state.queue.size());
+                lock.notify();
+            }
+        }
+
+        if (dropped != null) {
+            notifyDropped(dropped);
+        }
+        return handle;
+    }
+
+    /**
+     * Cancel all queued and running work of the owner; returns how many were still queued
+     */
+    public int cancelAll(Object owner) {
+        List<Handle> removed = new ArrayList<>();
+        synchronized (lock) {
+            for (LaneState state : lanes) {
+                Iterator<Handle> iterator = state.queue.iterator();
+                while (iterator.hasNext()) {
+                    Handle handle = iterator.next();
+                    if (handle.owner == owner) {
+                        handle.cancelled = true;
+                        iterator.remove();
+                        state.cancelled++;
+                        removed.add(handle);
+                    }
+                }
+            }
+            for (Handle running : runningHandles) {
+                if (running.owner == owner) {
+                    running.cancelled = true;
+                }
+            }
+        }
+
+        for (Handle handle : removed) {
+            notifyDropped(handle);
+        }
+        return removed.size();
+    }
+
+    public int getQueueDepth(Lane lane) {
+        synchronized (lock) {
+            return lanes[lane.ordinal()].queue.size();
+        }
+    }
+
+    public LaneMetrics getMetrics(Lane lane) {
+        synchronized (lock) {
+            LaneState state = lanes[lane.ordinal()];
+            double averageWait = state.dequeued > 0 ? state.totalWaitNanos / 1e6 / state.dequeued : 0.0;
+            return new LaneMetrics(state.queue.size(), state.maxDepth, state.submitted, state.completed,
+                    state.dropped, state.cancelled, averageWait, state.maxWaitNanos / 1e6);
+        }
+    }
+
+    /**
+     * One line per lane, for logs
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Face work");
+        for (Lane lane : Lane.values()) {
+            summary.append("\n  ").append(lane).append(": ").append(getMetrics(lane));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Stop the workers; queued work is discarded without running
+     */
+    public void shutdown() {
+        synchronized (FaceWorkScheduler.class) {
+            if (defaultScheduler == this) {
+                defaultScheduler = null;
+            }
+        }
+
+        List<Handle> discarded = new ArrayList<>();
+        synchronized (lock) {
+            shutdown = true;
+            for (LaneState state : lanes) {
+                discarded.addAll(state.queue);
+                state.dropped += state.queue.size();
+                state.queue.clear();
+            }
+            lock.notifyAll();
+        }
+
+        for (Handle handle : discarded) {
+            notifyDropped(handle);
+        }
+    }
+
+    private void cancel(Handle handle) {
+        boolean removed;
+        synchronized (lock) {
+            handle.cancelled = true;
+            LaneState state = lanes[handle.lane.ordinal()];
+            removed = state.queue.remove(handle);
+            if (removed) {
+                state.cancelled++;
+            }
+        }
+
+        if (removed) {
+            notifyDropped(handle);
+        }
+    }
+
+    private static void notifyDropped(Handle handle) {
+        if (handle.onDropped != null) {
+            handle.onDropped.run(handle);
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Handle handle;
+            synchronized (lock) {
+                handle = null;
+                while (!shutdown && (handle = pollHighestPriority()) == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (handle == null) {
+                    return;
+                }
+                runningHandles.add(handle);
+            }
+
+            try {
+                handle.work.run(handle);
+            } catch (RuntimeException e) {
+                // Keep the worker alive, and let the submitter release resources and report the
+                // failure, unless the work already delivered its result
+                LOG.log(Level.WARNING, "Face work failed on " + handle.lane, e);
+                if (!handle.delivered) {
+                    try {
+                        notifyDropped(handle);
+                    } catch (RuntimeException dropFailure) {
+                        LOG.log(Level.WARNING, "Release hook failed on " + handle.lane, dropFailure);
+                    }
+                }
+            } finally {
+                synchronized (lock) {
+                    runningHandles.remove(handle);
+                    lanes[handle.lane.ordinal()].completed++;
+                }
+            }
+        }
+    }
+
+    // Called with lock held
+    private Handle pollHighestPriority() {
+        for (LaneState state : lanes) {
+            Handle handle = state.queue.pollFirst();
+            if (handle != null) {
+                long waitNanos = System.nanoTime() - handle.enqueuedAtNanos;
+                state.dequeued++;
+                state.totalWaitNanos += waitNanos;
+                state.maxWaitNanos = Math.max(state.maxWaitNanos, waitNanos);
+                return handle;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.smart_attendance_system;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Rolling frame-time statistics for the camera analysis pipeline.
+ * Keeps the most recent samples in a fixed ring so recording never allocates.
+ */
+public class FrameTimeTracker {
+
+    private final String label;
+    private final long[] samples;
+    private final long[] sortScratch;
+    private int count = 0;
+    private int next = 0;
+    private long totalFrames = 0;
+
+    public FrameTimeTracker(String label, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.label = label;
+        this.samples = new long[capacity];
+        this.sortScratch = new long[capacity];
+    }
+
+    /**
+     * Record the time one frame took, in nanoseconds
+     */
+    public synchronized void record(long frameNanos) {
+        samples[next] = frameNanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        totalFrames++;
+    }
+
+    public synchronized long getTotalFrames() {
+        return totalFrames;
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Average frame time over the retained window, in milliseconds
+     */
+    public synchronized double getAverageMillis() {
+        if (count == 0) {
+            return 0.0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / (double) count / 1_000_000.0;
+    }
+
+    /**
+     * Frame time at the given percentile (0-100) over the retained window, in milliseconds
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        System.arraycopy(samples, 0, sortScratch, 0, count);
+        Arrays.sort(sortScratch, 0, count);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        index = Math.max(0, Math.min(count - 1, index));
+        return sortScratch[index] / 1_000_000.0;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+        totalFrames = 0;
+    }
+
+    public String summary() {
+        return String.format(Locale.US, "%s: frames=%d avg=%.1fms p95=%.1fms",
+                label, getTotalFrames(), getAverageMillis(), getPercentileMillis(95));
+    }
+}
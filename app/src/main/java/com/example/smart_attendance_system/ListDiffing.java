@@ -0,0 +1,44 @@
+package com.example.smart_attendance_system;
+
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared setup for the attendance list adapters: DiffUtil runs on one background thread for all
+ * lists, and rows get stable ids derived from their enrollment number or session id.
+ */
+public final class ListDiffing {
+
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ListDiffing");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private ListDiffing() {
+    }
+
+    public static <T> AsyncDifferConfig<T> config(DiffUtil.ItemCallback<T> callback) {
+        return new AsyncDifferConfig.Builder<>(callback)
+                .setBackgroundThreadExecutor(DIFF_EXECUTOR)
+                .build();
+    }
+
+    /**
+     * 64-bit FNV-1a of the key; String.hashCode collides too easily for a 500-row list
+     */
+    public static long stableId(String key) {
+        long hash = 0xcbf29ce484222325L;
+        if (key == null) {
+            return hash;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -180,6 +180,12 @@ public class LoginStudentActivity extends AppCompatActivity implements TextWatch
 
         PreferenceManager.saveStudentInfo(this, enrollmentNo, loginEmail, studentName, branch, year, section);
 
+        // Records created before class_key existed are invisible to class queries until backfilled
+        if (!studentSnapshot.hasChild(Constants.STUDENT_CLASS_KEY)) {
+            DatabaseHelper.getInstance().backfillStudentClassKey(enrollmentNo, studentName,
+                    studentSnapshot.child(Constants.STUDENT_EMAIL).getValue(String.class), branch, year, section);
+        }
+
         Toast.makeText(this, Constants.SUCCESS_LOGIN, Toast.LENGTH_SHORT).show();
         navigateToStudentDashboard();
     }
@@ -0,0 +1,240 @@
+package com.example.smart_attendance_system;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache of reference face embeddings keyed by enrollment number.
+ * Memory holds decoded embeddings; ReferenceFaceDiskStore holds the raw encoded bytes with their
+ * content hash. Both are versioned by the student's face_registered_at, which is watched with a
+ * listener, so a repeat verification is served from memory without a download or a decode and a
+ * re-registration invalidates both tiers. Returned embeddings are shared and must not be modified.
+ */
+public class ReferenceFaceCache {
+
+    private static final String TAG = "ReferenceFaceCache";
+    private static final String DISK_DIR = "reference_faces";
+
+    // Embeddings are a few hundred bytes; a device rarely sees more than a handful of students
+    private static final int MAX_MEMORY_ENTRIES = 16;
+
+    // Version used for faces registered before face_registered_at was written
+    private static final long UNVERSIONED = 0L;
+
+    private static final class Entry {
+        final long version;
+        final float[] embedding;
+
+        Entry(long version, float[] embedding) {
+            this.version = version;
+            this.embedding = embedding;
+        }
+    }
+
+    private static ReferenceFaceCache instance;
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MAX_MEMORY_ENTRIES);
+    private final ReferenceFaceDiskStore disk;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+
+    private final Map<String, Long> knownVersions = new HashMap<>();
+    private final Map<String, TaskCompletionSource<Long>> pendingVersions = new HashMap<>();
+    private final Map<String, ValueEventListener> versionWatchers = new HashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ReferenceFaceCache(Context context) {
+        disk = new ReferenceFaceDiskStore(new File(context.getCacheDir(), DISK_DIR));
+    }
+
+    public static synchronized ReferenceFaceCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReferenceFaceCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Decoded reference embedding for the student, or null when they only have a legacy face_data image
+     */
+    public Task<float[]> getEmbedding(String enrollmentNo) {
+        Long version = getKnownVersion(enrollmentNo);
+        if (version != null) {
+            Entry entry = memory.get(enrollmentNo);
+            if (entry != null && entry.version == version) {
+                memoryHits.incrementAndGet();
+                return Tasks.forResult(entry.embedding);
+            }
+        }
+
+        return watchVersion(enrollmentNo)
+                .continueWithTask(diskExecutor, task -> load(enrollmentNo, task.getResult()));
+    }
+
+    /**
+     * Drop the student's cached reference from both tiers
+     */
+    public void invalidate(String enrollmentNo) {
+        memory.remove(enrollmentNo);
+        diskExecutor.execute(() -> disk.remove(enrollmentNo));
+    }
+
+    /**
+     * Stop watching every student and empty the memory tier, e.g. on logout.
+     * Disk entries are kept; they are only served again for a matching version.
+     */
+    public synchronized void clear() {
+        for (Map.Entry<String, ValueEventListener> watcher : versionWatchers.entrySet()) {
+            versionReference(watcher.getKey()).removeEventListener(watcher.getValue());
+        }
+        versionWatchers.clear();
+        knownVersions.clear();
+        pendingVersions.clear();
+        memory.evictAll();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Share of lookups served without a download, 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "memoryHits=" + memoryHits.get() + ", diskHits=" + diskHits.get() + ", misses=" + misses.get();
+    }
+
+    private synchronized Long getKnownVersion(String enrollmentNo) {
+        return knownVersions.get(enrollmentNo);
+    }
+
+    // Runs on diskExecutor: memory, then disk, then a download of the compact embedding
+    private Task<float[]> load(String enrollmentNo, long version) {
+        Entry entry = memory.get(enrollmentNo);
+        if (entry != null && entry.version == version) {
+            memoryHits.incrementAndGet();
+            return Tasks.forResult(entry.embedding);
+        }
+
+        String encoded = disk.read(enrollmentNo, version);
+        if (FaceEmbeddingCodec.isSupported(encoded)) {
+            diskHits.incrementAndGet();
+            float[] embedding = FaceEmbeddingCodec.decode(encoded);
+            memory.put(enrollmentNo, new Entry(version, embedding));
+            return Tasks.forResult(embedding);
+        }
+
+        misses.incrementAndGet();
+        Log.d(TAG, "Reference face miss for " + enrollmentNo + " (" + this + ")");
+        return DatabaseHelper.getInstance().getStudentsReference().child(enrollmentNo)
+                .child(Constants.STUDENT_FACE_EMBEDDING).get()
+                .continueWith(diskExecutor, task -> {
+                    String downloaded = task.getResult().getValue(String.class);
+                    if (!FaceEmbeddingCodec.isSupported(downloaded)) {
+                        return null;
+                    }
+
+                    float[] embedding = FaceEmbeddingCodec.decode(downloaded);
+                    memory.put(enrollmentNo, new Entry(version, embedding));
+                    try {
+                        disk.write(enrollmentNo, version, downloaded);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Could not store reference face for " + enrollmentNo, e);
+                    }
+                    return embedding;
+                });
+    }
+
+    // Current face_registered_at of the student; the first call attaches a listener that keeps it current
+    private synchronized Task<Long> watchVersion(String enrollmentNo) {
+        Long known = knownVersions.get(enrollmentNo);
+        if (known != null) {
+            return Tasks.forResult(known);
+        }
+
+        TaskCompletionSource<Long> pending = pendingVersions.get(enrollmentNo);
+        if (pending != null) {
+            return pending.getTask();
+        }
+        TaskCompletionSource<Long> source = new TaskCompletionSource<>();
+        pendingVersions.put(enrollmentNo, source);
+
+        ValueEventListener watcher = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long registeredAt = snapshot.getValue(Long.class);
+                onVersionChanged(enrollmentNo, registeredAt != null ? registeredAt : UNVERSIONED);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error watching face version for " + enrollmentNo + ": " + error.getMessage());
+                synchronized (ReferenceFaceCache.this) {
+                    versionWatchers.remove(enrollmentNo);
+                    TaskCompletionSource<Long> waiting = pendingVersions.remove(enrollmentNo);
+                    if (waiting != null) {
+                        waiting.trySetException(error.toException());
+                    }
+                }
+            }
+        };
+        versionWatchers.put(enrollmentNo, watcher);
+        versionReference(enrollmentNo).addValueEventListener(watcher);
+        return source.getTask();
+    }
+
+    private synchronized void onVersionChanged(String enrollmentNo, long version) {
+        Long previous = knownVersions.put(enrollmentNo, version);
+        if (previous != null && previous != version) {
+            Log.d(TAG, "Face re-registered for " + enrollmentNo + ", invalidating cached reference");
+            invalidate(enrollmentNo);
+        }
+
+        TaskCompletionSource<Long> waiting = pendingVersions.remove(enrollmentNo);
+        if (waiting != null) {
+            waiting.trySetResult(version);
+        }
+    }
+
+    private static DatabaseReference versionReference(String enrollmentNo) {
+        return DatabaseHelper.getInstance().getStudentsReference().child(enrollmentNo)
+                .child(Constants.STUDENT_FACE_REGISTERED_AT);
+    }
+}
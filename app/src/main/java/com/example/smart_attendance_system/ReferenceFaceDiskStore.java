@@ -0,0 +1,101 @@
+package com.example.smart_attendance_system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Disk tier of the reference-face cache: one small file per enrollment number holding the raw
+ * encoded embedding, the face_registered_at version it belongs to, and a CRC32 of the content.
+ * A read only succeeds for the expected version and an intact payload.
+ */
+public class ReferenceFaceDiskStore {
+
+    private static final int MAGIC = 0x52464331; // "RFC1"
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private final File directory;
+
+    public ReferenceFaceDiskStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Content hash of an encoded reference; stored with it and compared on read
+     */
+    public static long contentHash(String encoded) {
+        CRC32 crc = new CRC32();
+        crc.update(encoded.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Encoded reference for the student at this version, or null if absent, stale or corrupt
+     */
+    public synchronized String read(String enrollmentNo, long version) {
+        File file = fileFor(enrollmentNo);
+        if (!file.isFile() || file.length() > MAX_PAYLOAD_BYTES) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readLong() != version) {
+                return null;
+            }
+            long hash = in.readLong();
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+
+            String encoded = new String(payload, StandardCharsets.UTF_8);
+            return contentHash(encoded) == hash ? encoded : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the encoded reference for the student at this version, replacing any older one
+     */
+    public synchronized void write(String enrollmentNo, long version, String encoded) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        byte[] payload = encoded.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 24);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeLong(version);
+        out.writeLong(contentHash(encoded));
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+
+        // Written beside the target and renamed, so a reader never sees half a file
+        File file = fileFor(enrollmentNo);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+            bytes.writeTo(fileOut);
+            fileOut.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    public synchronized void remove(String enrollmentNo) {
+        fileFor(enrollmentNo).delete();
+    }
+
+    private File fileFor(String enrollmentNo) {
+        // Enrollment numbers are alphanumeric; anything else is replaced to keep the name a single path segment
+        return new File(directory, enrollmentNo.replaceAll("[^A-Za-z0-9_-]", "_") + ".ref");
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.smart_attendance_system;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.content.Intent;
@@ -11,18 +10,13 @@ import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.google.android.gms.tasks.OnCompleteListener;
-import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SelectAttendanceActivity extends AppCompatActivity {
 
@@ -30,12 +24,13 @@ public class SelectAttendanceActivity extends AppCompatActivity {
 
     private Button btn_mark_present, btn_back, btn_refresh;
     private TextView tv_session_info, tv_student_info;
-    private DatabaseReference studentsRef, attendanceReportRef;
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor();
 
     private String enrollmentNo;
     private String activeSessionId;
     private String studentBranch, studentYear, studentSection, studentName;
     private boolean isMarkingAttendance = false;
+    private boolean activeSessionMarked = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,10 +59,6 @@ public class SelectAttendanceActivity extends AppCompatActivity {
             tv_session_info = findViewById(R.id.tv_session_info);
             tv_student_info = findViewById(R.id.tv_student_info);
 
-            // Initialize Firebase references
-            studentsRef = FirebaseDatabase.getInstance().getReference(Constants.STUDENTS_REF);
-            attendanceReportRef = FirebaseDatabase.getInstance().getReference(Constants.ATTENDANCE_REPORT_REF);
-
             // Initially disable the mark present button
             btn_mark_present.setEnabled(false);
             
@@ -158,125 +149,61 @@ public class SelectAttendanceActivity extends AppCompatActivity {
     }
 
     private void findActiveSessionsForStudent() {
+        findActiveSessionsForStudent(false);
+    }
+
+    private void findActiveSessionsForStudent(boolean refresh) {
         try {
             tv_session_info.setText("Searching for active sessions...");
             Log.d(TAG, "Starting to search for active sessions");
 
-            attendanceReportRef.orderByChild(Constants.SESSION_STATUS)
-                    .equalTo(Constants.SESSION_ACTIVE)
-                    .addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                            try {
-                                Log.d(TAG, "Received session data, count: " + dataSnapshot.getChildrenCount());
-                                
-                                String validSessionId = null;
-                                DataSnapshot validSessionSnapshot = null;
-
-                                // Get current date for comparison
-                                SimpleDateFormat dateFormat = new SimpleDateFormat(Constants.DATE_FORMAT, Locale.getDefault());
-                                String currentDate = dateFormat.format(new Date());
-
-                                Log.d(TAG, "Searching sessions for date: " + currentDate);
-                                Log.d(TAG, "Student class: " + studentBranch + "-" + studentYear + "-" + studentSection);
-
-                                for (DataSnapshot sessionSnapshot : dataSnapshot.getChildren()) {
-                                    String sessionId = sessionSnapshot.getKey();
-                                    String sessionBranch = sessionSnapshot.child(Constants.SESSION_BRANCH).getValue(String.class);
-                                    String sessionYear = sessionSnapshot.child(Constants.SESSION_YEAR).getValue(String.class);
-                                    String sessionSection = sessionSnapshot.child(Constants.SESSION_SECTION).getValue(String.class);
-                                    String sessionDate = sessionSnapshot.child(Constants.SESSION_DATE).getValue(String.class);
-                                    String sessionStatus = sessionSnapshot.child(Constants.SESSION_STATUS).getValue(String.class);
-
-                                    Log.d(TAG, "Checking session: " + sessionId +
-                                            " - Branch: " + sessionBranch + ", Year: " + sessionYear +
-                                            ", Section: " + sessionSection + ", Date: " + sessionDate +
-                                            ", Status: " + sessionStatus);
-
-                                    // Check if session matches student's class and is active
-                                    boolean branchMatch = sessionBranch != null && sessionBranch.equals(studentBranch);
-                                    boolean yearMatch = sessionYear != null && sessionYear.equals(studentYear);
-                                    boolean sectionMatch = sessionSection != null && sessionSection.equals(studentSection);
-                                    boolean dateMatch = sessionDate != null && sessionDate.equals(currentDate);
-                                    boolean statusActive = Constants.SESSION_ACTIVE.equals(sessionStatus);
-
-                                    if (branchMatch && yearMatch && sectionMatch && dateMatch && statusActive) {
-                                        // Check if session is currently active (time-based)
-                                        if (isSessionTimeActive(sessionSnapshot)) {
-                                            validSessionId = sessionId;
-                                            validSessionSnapshot = sessionSnapshot;
-                                            Log.d(TAG, "Found valid active session: " + sessionId);
-                                            break;
-                                        } else {
-                                            Log.d(TAG, "Session time not active: " + sessionId);
-                                        }
-                                    }
-                                }
+            // Usually already loaded by the dashboard's prefetch, so this resolves immediately
+            CheckInPipeline.getActiveSession(this, refresh)
+                    .addOnCompleteListener(this, task -> {
+                        try {
+                            if (!task.isSuccessful()) {
+                                Exception e = task.getException();
+                                Log.e(TAG, "Error finding sessions", e);
+                                tv_session_info.setText("❌ Error loading sessions\nPlease try again");
+                                Toast.makeText(SelectAttendanceActivity.this,
+                                        "Error loading sessions: " + (e != null ? e.getMessage() : "unknown error"),
+                                        Toast.LENGTH_LONG).show();
+                                return;
+                            }
+
+                            CheckInPipeline.ActiveSession activeSession = task.getResult();
+                            if (activeSession.session != null) {
+                                activeSessionId = activeSession.getSessionId();
+                                activeSessionMarked = activeSession.isMarkedPresent();
+                                Log.d(TAG, "Found valid active session: " + activeSessionId);
+                                displayActiveSession(activeSession.session);
+                                btn_mark_present.setEnabled(true);
 
-                                if (validSessionId != null && validSessionSnapshot != null) {
-                                    activeSessionId = validSessionId;
-                                    displayActiveSession(validSessionSnapshot);
-                                    btn_mark_present.setEnabled(true);
-                                } else {
-                                    displayNoActiveSession();
-                                    btn_mark_present.setEnabled(false);
+                                // Coming back from a successful face check: mark straight away
+                                if (isVerifiedForSession(activeSessionId)) {
+                                    markAttendance();
                                 }
-                                
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error processing session data: " + e.getMessage(), e);
+                            } else {
                                 displayNoActiveSession();
                                 btn_mark_present.setEnabled(false);
                             }
-                        }
 
-                        @Override
-                        public void onCancelled(@NonNull DatabaseError error) {
-                            Log.e(TAG, "Error finding sessions: " + error.getMessage());
-                            tv_session_info.setText("❌ Error loading sessions\nPlease try again");
-                            Toast.makeText(SelectAttendanceActivity.this,
-                                    "Error loading sessions: " + error.getMessage(), Toast.LENGTH_LONG).show();
+                        } catch (Exception e) {
+                            Log.e(TAG, "Error processing session data: " + e.getMessage(), e);
+                            displayNoActiveSession();
+                            btn_mark_present.setEnabled(false);
                         }
                     });
-                    
+
         } catch (Exception e) {
             Log.e(TAG, "Error in findActiveSessionsForStudent: " + e.getMessage(), e);
             displayNoActiveSession();
         }
     }
 
-    private boolean isSessionTimeActive(DataSnapshot sessionSnapshot) {
-        try {
-            String startTime = sessionSnapshot.child(Constants.SESSION_START_TIME).getValue(String.class);
-            String endTime = sessionSnapshot.child(Constants.SESSION_END_TIME).getValue(String.class);
-
-            if (startTime != null && endTime != null) {
-                SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
-                Date currentTime = new Date();
-                Date sessionStart = timeFormat.parse(startTime);
-                Date sessionEnd = timeFormat.parse(endTime);
-
-                // Set dates to today for comparison
-                Calendar cal = Calendar.getInstance();
-
-                Calendar startCal = Calendar.getInstance();
-                startCal.setTime(sessionStart);
-                startCal.set(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
-
-                Calendar endCal = Calendar.getInstance();
-                endCal.setTime(sessionEnd);
-                endCal.set(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
-
-                // Allow attendance within session time + 30 minutes buffer
-                endCal.add(Calendar.MINUTE, 30);
-
-                boolean isActive = currentTime.after(startCal.getTime()) && currentTime.before(endCal.getTime());
-                Log.d(TAG, "Session time check - Start: " + startTime + ", End: " + endTime + ", Active: " + isActive);
-                return isActive;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing session time: " + e.getMessage());
-        }
-        return true; // Allow attendance if time parsing fails
+    private boolean isVerifiedForSession(String sessionId) {
+        return getIntent().getBooleanExtra(Constants.EXTRA_FACE_VERIFIED, false)
+                && sessionId.equals(getIntent().getStringExtra(Constants.EXTRA_SESSION_ID));
     }
 
     private void displayActiveSession(DataSnapshot sessionSnapshot) {
@@ -380,49 +307,18 @@ public class SelectAttendanceActivity extends AppCompatActivity {
 
             Log.d(TAG, "Marking attendance for student: " + enrollmentNo + ", session: " + activeSessionId);
 
-            // Check if attendance is already marked
-            DatabaseReference attendanceRef = studentsRef.child(enrollmentNo)
-                    .child(Constants.STUDENT_ATTENDANCE)
-                    .child(activeSessionId);
+            // Already present on the server per the prefetched status; nothing to write
+            if (activeSessionMarked) {
+                isMarkingAttendance = false;
+                Toast.makeText(this, Constants.ERROR_ATTENDANCE_ALREADY_MARKED, Toast.LENGTH_LONG).show();
+                navigateToSuccessScreen();
+                return;
+            }
 
-            attendanceRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                    try {
-                        if (dataSnapshot.exists()) {
-                            String existingAttendance = dataSnapshot.getValue(String.class);
-                            if (Constants.ATTENDANCE_PRESENT.equals(existingAttendance)) {
-                                isMarkingAttendance = false;
-                                Toast.makeText(SelectAttendanceActivity.this,
-                                        Constants.ERROR_ATTENDANCE_ALREADY_MARKED, Toast.LENGTH_LONG).show();
-                                navigateToSuccessScreen();
-                            } else {
-                                updateAttendanceToPresent(attendanceRef);
-                            }
-                        } else {
-                            updateAttendanceToPresent(attendanceRef);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing attendance check: " + e.getMessage(), e);
-                        isMarkingAttendance = false;
-                        btn_mark_present.setEnabled(true);
-                        btn_mark_present.setText("Mark Present");
-                        Toast.makeText(SelectAttendanceActivity.this,
-                                "Error checking attendance status", Toast.LENGTH_SHORT).show();
-                    }
-                }
+            // Record the mark on the device and return; AttendanceSyncWorker pushes it to Firebase
+            String sessionId = activeSessionId;
+            journalExecutor.execute(() -> recordAttendance(sessionId));
 
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.e(TAG, "Error checking attendance: " + error.getMessage());
-                    isMarkingAttendance = false;
-                    btn_mark_present.setEnabled(true);
-                    btn_mark_present.setText("Mark Present");
-                    Toast.makeText(SelectAttendanceActivity.this,
-                            "Error checking attendance status: " + error.getMessage(), Toast.LENGTH_LONG).show();
-                }
-            });
-            
         } catch (Exception e) {
             Log.e(TAG, "Error in markAttendance: " + e.getMessage(), e);
             isMarkingAttendance = false;
@@ -432,34 +328,37 @@ public class SelectAttendanceActivity extends AppCompatActivity {
         }
     }
 
-    private void updateAttendanceToPresent(DatabaseReference attendanceRef) {
+    // Runs on journalExecutor: durable local append, then hand the sync to WorkManager
+    private void recordAttendance(String sessionId) {
         try {
-            Log.d(TAG, "Updating attendance to present");
-            attendanceRef.setValue(Constants.ATTENDANCE_PRESENT)
-                    .addOnCompleteListener(new OnCompleteListener<Void>() {
-                        @Override
-                        public void onComplete(@NonNull Task<Void> task) {
-                            isMarkingAttendance = false;
-                            if (task.isSuccessful()) {
-                                Log.d(TAG, "Attendance marked successfully");
-                                Toast.makeText(SelectAttendanceActivity.this,
-                                        Constants.SUCCESS_ATTENDANCE_MARKED, Toast.LENGTH_SHORT).show();
-                                navigateToSuccessScreen();
-                            } else {
-                                Log.e(TAG, "Failed to mark attendance: " + task.getException());
-                                btn_mark_present.setEnabled(true);
-                                btn_mark_present.setText("Mark Present");
-                                Toast.makeText(SelectAttendanceActivity.this,
-                                        "Failed to mark attendance. Please try again.", Toast.LENGTH_LONG).show();
-                            }
-                        }
-                    });
+            AttendanceJournal journal = AttendanceSyncWorker.getJournal(this);
+            AttendanceJournal.Entry pending = journal.findPending(enrollmentNo, sessionId);
+            boolean alreadyMarked = pending != null && Constants.ATTENDANCE_PRESENT.equals(pending.status);
+
+            if (!alreadyMarked) {
+                journal.append(new AttendanceJournal.Entry(enrollmentNo, sessionId,
+                        Constants.ATTENDANCE_PRESENT, System.currentTimeMillis(), studentName));
+            }
+            AttendanceSyncWorker.enqueue(this);
+            CheckInPipeline.invalidate();
+
+            runOnUiThread(() -> {
+                isMarkingAttendance = false;
+                Log.d(TAG, alreadyMarked ? "Attendance already pending sync" : "Attendance recorded locally");
+                Toast.makeText(SelectAttendanceActivity.this,
+                        alreadyMarked ? Constants.ERROR_ATTENDANCE_ALREADY_MARKED : Constants.SUCCESS_ATTENDANCE_MARKED,
+                        Toast.LENGTH_SHORT).show();
+                navigateToSuccessScreen();
+            });
         } catch (Exception e) {
-            Log.e(TAG, "Error updating attendance: " + e.getMessage(), e);
-            isMarkingAttendance = false;
-            btn_mark_present.setEnabled(true);
-            btn_mark_present.setText("Mark Present");
-            Toast.makeText(this, "Error updating attendance", Toast.LENGTH_SHORT).show();
+            Log.e(TAG, "Error recording attendance: " + e.getMessage(), e);
+            runOnUiThread(() -> {
+                isMarkingAttendance = false;
+                btn_mark_present.setEnabled(true);
+                btn_mark_present.setText("Mark Present");
+                Toast.makeText(SelectAttendanceActivity.this,
+                        "Failed to mark attendance. Please try again.", Toast.LENGTH_LONG).show();
+            });
         }
     }
 
@@ -483,7 +382,7 @@ public class SelectAttendanceActivity extends AppCompatActivity {
         try {
             btn_mark_present.setEnabled(false);
             isMarkingAttendance = false;
-            findActiveSessionsForStudent();
+            findActiveSessionsForStudent(true);
         } catch (Exception e) {
             Log.e(TAG, "Error refreshing sessions: " + e.getMessage(), e);
         }
@@ -498,6 +397,8 @@ public class SelectAttendanceActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         isMarkingAttendance = false;
+        // Let a queued append finish; the journal outlives the activity
+        journalExecutor.shutdown();
         Log.d(TAG, "Activity destroyed");
     }
 }
\ No newline at end of file
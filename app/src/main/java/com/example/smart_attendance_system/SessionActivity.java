@@ -12,14 +12,14 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -41,10 +41,16 @@ public class SessionActivity extends AppCompatActivity {
     private Button btn_end_session, btn_view_live_attendance, btn_refresh_count;
     private ImageView iv_session_indicator;
 
-    private DatabaseReference attendanceReportRef, studentsRef;
     private boolean isSessionActive = false;
     private BroadcastReceiver autoCloseReceiver;
 
+    // Live roster counts, updated per child event instead of re-reading the roster
+    private DatabaseReference rosterRef;
+    private ChildEventListener rosterListener;
+    private final Map<String, Boolean> presentByEnrollment = new HashMap<>();
+    private int rosterTotal = 0;
+    private int rosterPresent = 0;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -66,9 +72,6 @@ public class SessionActivity extends AppCompatActivity {
         btn_refresh_count = findViewById(R.id.btn_refresh_count);
         iv_session_indicator = findViewById(R.id.iv_session_indicator);
 
-        attendanceReportRef = FirebaseDatabase.getInstance().getReference(Constants.ATTENDANCE_REPORT_REF);
-        studentsRef = FirebaseDatabase.getInstance().getReference(Constants.STUDENTS_REF);
-
         // Initially disable buttons until session is created
         btn_end_session.setEnabled(false);
         btn_view_live_attendance.setEnabled(false);
@@ -124,8 +127,9 @@ public class SessionActivity extends AppCompatActivity {
             }
         };
         
+        // Sent by SessionExpiryWorker within this app only
         IntentFilter filter = new IntentFilter(Constants.ACTION_SESSION_AUTO_CLOSED);
-        registerReceiver(autoCloseReceiver, filter);
+        ContextCompat.registerReceiver(this, autoCloseReceiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED);
     }
     
     private void handleAutoClose() {
@@ -172,20 +176,9 @@ public class SessionActivity extends AppCompatActivity {
         Date endDate = new Date(currentDate.getTime() + (2 * 60 * 60 * 1000));
         String endTime = timeFormat.format(endDate);
 
-        // Create session data
-        Map<String, Object> sessionData = new HashMap<>();
-        sessionData.put(Constants.SESSION_BRANCH, branch);
-        sessionData.put(Constants.SESSION_YEAR, year);
-        sessionData.put(Constants.SESSION_SECTION, section);
-        sessionData.put(Constants.SESSION_SUBJECT, subject);
-        sessionData.put(Constants.SESSION_DATE, formattedDate);
-        sessionData.put(Constants.SESSION_START_TIME, startTime);
-        sessionData.put(Constants.SESSION_END_TIME, endTime);
-        sessionData.put(Constants.SESSION_STATUS, Constants.SESSION_ACTIVE);
-        sessionData.put("created_at", timestamp);
-        sessionData.put("faculty_email", PreferenceManager.getFacultyEmail(this));
-
-        attendanceReportRef.child(sessionId).setValue(sessionData)
+        // Session fields and the class roster go out in one write (class_key lets students find it with one indexed query)
+        DatabaseHelper.getInstance().createAttendanceSession(sessionId, branch, year, section, subject,
+                        formattedDate, startTime, endTime, PreferenceManager.getFacultyEmail(this))
                 .addOnCompleteListener(new OnCompleteListener<Void>() {
                     @Override
                     public void onComplete(@NonNull Task<Void> task) {
@@ -193,10 +186,12 @@ public class SessionActivity extends AppCompatActivity {
                             Log.d(TAG, "Session created successfully");
                             isSessionActive = true;
                             updateUIAfterSessionCreation(formattedDate, startTime, endTime);
-                            refreshStudentCount();
-                            
-                            // Start auto-close service
-                            startAutoCloseService();
+
+                            // Counts stream in from the roster as students check in
+                            attachRosterListener();
+
+                            // Schedule the auto-close
+                            scheduleAutoClose();
                         } else {
                             Log.e(TAG, "Failed to create session: " + task.getException());
                             Toast.makeText(SessionActivity.this,
@@ -207,11 +202,9 @@ public class SessionActivity extends AppCompatActivity {
                 });
     }
     
-    private void startAutoCloseService() {
-        Intent serviceIntent = new Intent(this, SessionAutoCloseService.class);
-        serviceIntent.putExtra(Constants.EXTRA_SESSION_ID, sessionId);
-        startService(serviceIntent);
-        Log.d(TAG, "Auto-close service started for session: " + sessionId);
+    private void scheduleAutoClose() {
+        // Durable, server-time deadline; survives this activity and the process
+        SessionExpiryScheduler.schedule(this, sessionId, Constants.SESSION_AUTO_CLOSE_TIME);
     }
 
     private void updateUIAfterSessionCreation(String date, String startTime, String endTime) {
@@ -243,44 +236,81 @@ public class SessionActivity extends AppCompatActivity {
     private void refreshStudentCount() {
         if (!isSessionActive) return;
 
-        studentsRef.orderByChild(Constants.STUDENT_BRANCH).equalTo(branch)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                        int totalStudents = 0;
-                        int presentStudents = 0;
-
-                        for (DataSnapshot studentSnapshot : dataSnapshot.getChildren()) {
-                            String studentYear = studentSnapshot.child(Constants.STUDENT_YEAR).getValue(String.class);
-                            String studentSection = studentSnapshot.child(Constants.STUDENT_SECTION).getValue(String.class);
-
-                            if (year.equals(studentYear) && section.equals(studentSection)) {
-                                totalStudents++;
-
-                                // Check if student has marked attendance
-                                DataSnapshot attendanceSnapshot = studentSnapshot
-                                        .child(Constants.STUDENT_ATTENDANCE)
-                                        .child(sessionId);
-
-                                if (attendanceSnapshot.exists()) {
-                                    String status = attendanceSnapshot.getValue(String.class);
-                                    if (Constants.ATTENDANCE_PRESENT.equals(status)) {
-                                        presentStudents++;
-                                    }
-                                }
-                            }
-                        }
+        // Re-sync from scratch; normally the listener keeps the counts current
+        detachRosterListener();
+        attachRosterListener();
+    }
 
-                        updateStudentCountDisplay(totalStudents, presentStudents);
-                    }
+    private void attachRosterListener() {
+        if (rosterListener != null) return;
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error refreshing student count: " + error.getMessage());
-                        Toast.makeText(SessionActivity.this,
-                                "Error refreshing count: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+        presentByEnrollment.clear();
+        rosterTotal = 0;
+        rosterPresent = 0;
+        updateStudentCountDisplay(rosterTotal, rosterPresent);
+
+        rosterRef = DatabaseHelper.getInstance().getSessionRosterReference(sessionId);
+        rosterListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                applyRosterEntry(snapshot.getKey(), isPresent(snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                applyRosterEntry(snapshot.getKey(), isPresent(snapshot));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                Boolean wasPresent = presentByEnrollment.remove(snapshot.getKey());
+                if (wasPresent != null) {
+                    rosterTotal--;
+                    if (wasPresent) {
+                        rosterPresent--;
                     }
-                });
+                    updateStudentCountDisplay(rosterTotal, rosterPresent);
+                }
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // Order does not affect the counts
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Error listening to roster: " + error.getMessage());
+                Toast.makeText(SessionActivity.this,
+                        "Error refreshing count: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        };
+        rosterRef.addChildEventListener(rosterListener);
+    }
+
+    private void detachRosterListener() {
+        if (rosterRef != null && rosterListener != null) {
+            rosterRef.removeEventListener(rosterListener);
+        }
+        rosterListener = null;
+    }
+
+    private static boolean isPresent(DataSnapshot entrySnapshot) {
+        String status = entrySnapshot.child(Constants.ROSTER_STATUS).getValue(String.class);
+        return Constants.ATTENDANCE_PRESENT.equals(status);
+    }
+
+    private void applyRosterEntry(String enrollmentNo, boolean present) {
+        Boolean wasPresent = presentByEnrollment.put(enrollmentNo, present);
+        if (wasPresent == null) {
+            rosterTotal++;
+        } else if (wasPresent) {
+            rosterPresent--;
+        }
+        if (present) {
+            rosterPresent++;
+        }
+        updateStudentCountDisplay(rosterTotal, rosterPresent);
     }
 
     private void updateStudentCountDisplay(int total, int present) {
@@ -304,19 +334,18 @@ public class SessionActivity extends AppCompatActivity {
 
     private void endSession() {
         if (sessionId != null && isSessionActive) {
-            // Update session status to ended
-            attendanceReportRef.child(sessionId).child(Constants.SESSION_STATUS)
-                    .setValue(Constants.SESSION_ENDED)
-                    .addOnCompleteListener(new OnCompleteListener<Void>() {
+            // Ended status, final counts and absent entries in one write
+            DatabaseHelper.getInstance().closeAttendanceSession(sessionId)
+                    .addOnCompleteListener(new OnCompleteListener<Boolean>() {
                         @Override
-                        public void onComplete(@NonNull Task<Void> task) {
+                        public void onComplete(@NonNull Task<Boolean> task) {
                             if (task.isSuccessful()) {
                                 isSessionActive = false;
                                 Toast.makeText(SessionActivity.this,
                                         Constants.SUCCESS_SESSION_ENDED, Toast.LENGTH_SHORT).show();
                                 
-                                // Stop auto-close service
-                                stopAutoCloseService();
+                                // Nothing left to auto-close
+                                cancelAutoClose();
 
                                 Intent intent = new Intent(SessionActivity.this, AttendanceReportActivity.class);
                                 intent.putExtra(Constants.EXTRA_SESSION_ID, sessionId);
@@ -331,10 +360,9 @@ public class SessionActivity extends AppCompatActivity {
         }
     }
     
-    private void stopAutoCloseService() {
-        Intent serviceIntent = new Intent(this, SessionAutoCloseService.class);
-        stopService(serviceIntent);
-        Log.d(TAG, "Auto-close service stopped");
+    private void cancelAutoClose() {
+        SessionExpiryScheduler.cancel(this, sessionId);
+        Log.d(TAG, "Auto-close cancelled for session: " + sessionId);
     }
 
     private void viewLiveAttendance() {
@@ -368,12 +396,13 @@ public class SessionActivity extends AppCompatActivity {
         if (autoCloseReceiver != null) {
             unregisterReceiver(autoCloseReceiver);
         }
-        
+
+        detachRosterListener();
+
         // Optionally mark session as ended if activity is destroyed unexpectedly
         if (sessionId != null && isSessionActive) {
-            stopAutoCloseService();
-            attendanceReportRef.child(sessionId).child(Constants.SESSION_STATUS)
-                    .setValue(Constants.SESSION_ENDED);
+            cancelAutoClose();
+            DatabaseHelper.getInstance().closeAttendanceSession(sessionId);
         }
     }
 }
\ No newline at end of file
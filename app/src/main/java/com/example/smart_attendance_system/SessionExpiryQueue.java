@@ -0,0 +1,112 @@
+package com.example.smart_attendance_system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Session close deadlines ordered by time, earliest first. Deadlines are in server time
+ * (device clock + Firebase serverTimeOffset) so they stay correct across restarts and clock changes.
+ * Serializes to a plain string so the scheduler can persist it.
+ */
+public class SessionExpiryQueue {
+
+    /**
+     * One session and the server time at which it should be closed
+     */
+    public static final class Deadline {
+        public final String sessionId;
+        public final long deadline;
+
+        public Deadline(String sessionId, long deadline) {
+            this.sessionId = sessionId;
+            this.deadline = deadline;
+        }
+    }
+
+    private final PriorityQueue<Deadline> queue =
+            new PriorityQueue<>(11, (a, b) -> Long.compare(a.deadline, b.deadline));
+    private final Map<String, Deadline> bySession = new HashMap<>();
+
+    /**
+     * Add a session, or move its deadline if it is already queued
+     */
+    public void schedule(String sessionId, long deadline) {
+        cancel(sessionId);
+        Deadline entry = new Deadline(sessionId, deadline);
+        queue.add(entry);
+        bySession.put(sessionId, entry);
+    }
+
+    /**
+     * Remove a session; returns false if it was not queued
+     */
+    public boolean cancel(String sessionId) {
+        Deadline entry = bySession.remove(sessionId);
+        return entry != null && queue.remove(entry);
+    }
+
+    /**
+     * Remove and return every session whose deadline is at or before now, earliest first
+     */
+    public List<Deadline> pollDue(long now) {
+        List<Deadline> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().deadline <= now) {
+            Deadline entry = queue.poll();
+            bySession.remove(entry.sessionId);
+            due.add(entry);
+        }
+        return due;
+    }
+
+    /**
+     * Earliest pending deadline, or -1 when nothing is queued
+     */
+    public long nextDeadline() {
+        return queue.isEmpty() ? -1 : queue.peek().deadline;
+    }
+
+    public boolean contains(String sessionId) {
+        return bySession.containsKey(sessionId);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * One "deadline sessionId" line per entry
+     */
+    public String serialize() {
+        StringBuilder out = new StringBuilder();
+        for (Deadline entry : queue) {
+            out.append(entry.deadline).append(' ').append(entry.sessionId).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Rebuild a queue from serialize() output; malformed lines are skipped
+     */
+    public static SessionExpiryQueue deserialize(String data) {
+        SessionExpiryQueue result = new SessionExpiryQueue();
+        if (data == null || data.isEmpty()) {
+            return result;
+        }
+
+        for (String line : data.split("\n")) {
+            int space = line.indexOf(' ');
+            if (space <= 0 || space == line.length() - 1) {
+                continue;
+            }
+            try {
+                result.schedule(line.substring(space + 1), Long.parseLong(line.substring(0, space)));
+            } catch (NumberFormatException e) {
+                // Skip a corrupt entry rather than losing the whole queue
+            }
+        }
+        return result;
+    }
+}
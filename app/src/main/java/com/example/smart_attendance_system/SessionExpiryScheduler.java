@@ -0,0 +1,144 @@
+package com.example.smart_attendance_system;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable auto-close for attendance sessions. Deadlines for any number of sessions are kept in a
+ * SessionExpiryQueue persisted in SharedPreferences, and one WorkManager job is kept scheduled for
+ * the earliest of them, so closes survive process death and reboots.
+ * A running job is never replaced, since WorkManager would cancel it mid-close and ignore its result:
+ * follow-ups are appended behind it, and only a job still waiting for its delay is replaced.
+ */
+public class SessionExpiryScheduler {
+
+    private static final String TAG = "SessionExpiryScheduler";
+    private static final String PREFS_NAME = "session_expiry";
+    private static final String KEY_QUEUE = "queue";
+    private static final String KEY_SERVER_TIME_OFFSET = "server_time_offset";
+    // Deadline the waiting job is timed for; absent while it runs or when there is none
+    private static final String KEY_SCHEDULED_DEADLINE = "scheduled_deadline";
+    // A job this far past its deadline without having run is assumed lost, e.g. with cleared app data
+    private static final long LOST_JOB_GRACE = TimeUnit.MINUTES.toMillis(15);
+    private static final String WORK_NAME = "session_expiry";
+
+    private SessionExpiryScheduler() {
+    }
+
+    /**
+     * Close a session after the given delay, measured on the server clock
+     */
+    public static void schedule(Context context, String sessionId, long delayMillis) {
+        refreshServerTimeOffset(context);
+
+        long deadline = serverNow(context) + delayMillis;
+        synchronized (SessionExpiryScheduler.class) {
+            SessionExpiryQueue queue = load(context);
+            queue.schedule(sessionId, deadline);
+            save(context, queue);
+        }
+        Log.d(TAG, "Session " + sessionId + " will auto-close at server time " + deadline);
+        enqueueNext(context);
+    }
+
+    /**
+     * Forget a session, e.g. after it was ended by hand
+     */
+    public static void cancel(Context context, String sessionId) {
+        remove(context, sessionId);
+        enqueueNext(context);
+    }
+
+    /**
+     * Device time corrected by the last known Firebase server offset
+     */
+    public static long serverNow(Context context) {
+        return System.currentTimeMillis() + prefs(context).getLong(KEY_SERVER_TIME_OFFSET, 0L);
+    }
+
+    static void storeServerTimeOffset(Context context, long offset) {
+        prefs(context).edit().putLong(KEY_SERVER_TIME_OFFSET, offset).apply();
+    }
+
+    // Sessions due at the given server time; they stay queued until remove() so a crash mid-close retries them
+    static List<SessionExpiryQueue.Deadline> getDue(Context context, long now) {
+        synchronized (SessionExpiryScheduler.class) {
+            return load(context).pollDue(now);
+        }
+    }
+
+    static void remove(Context context, String sessionId) {
+        synchronized (SessionExpiryScheduler.class) {
+            SessionExpiryQueue queue = load(context);
+            if (queue.cancel(sessionId)) {
+                save(context, queue);
+            }
+        }
+    }
+
+    // The job is running, so it no longer waits for the deadline it was timed for
+    static void onWorkerStarted(Context context) {
+        synchronized (SessionExpiryScheduler.class) {
+            prefs(context).edit().remove(KEY_SCHEDULED_DEADLINE).commit();
+        }
+    }
+
+    // Keep one job waiting for the earliest deadline. A job already waiting for an earlier or equal
+    // deadline is kept, since it schedules the rest when it runs; one waiting for a later deadline is
+    // replaced. Otherwise the job is appended, so a running job finishes before it starts.
+    // With nothing left queued, a waiting job is left to run and find nothing due.
+    static void enqueueNext(Context context) {
+        long next;
+        ExistingWorkPolicy policy;
+        synchronized (SessionExpiryScheduler.class) {
+            next = load(context).nextDeadline();
+            if (next < 0) {
+                return;
+            }
+            long scheduled = prefs(context).getLong(KEY_SCHEDULED_DEADLINE, -1L);
+            if (scheduled >= 0 && scheduled < serverNow(context) - LOST_JOB_GRACE) {
+                scheduled = -1L;
+            }
+            if (scheduled >= 0 && scheduled <= next) {
+                return;
+            }
+            policy = scheduled >= 0 ? ExistingWorkPolicy.REPLACE : ExistingWorkPolicy.APPEND_OR_REPLACE;
+            prefs(context).edit().putLong(KEY_SCHEDULED_DEADLINE, next).commit();
+        }
+
+        long delay = Math.max(0L, next - serverNow(context));
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SessionExpiryWorker.class)
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.LINEAR, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, policy, request);
+    }
+
+    private static void refreshServerTimeOffset(Context context) {
+        Context appContext = context.getApplicationContext();
+        DatabaseHelper.getInstance().getServerTimeOffset()
+                .addOnSuccessListener(offset -> storeServerTimeOffset(appContext, offset));
+    }
+
+    private static SessionExpiryQueue load(Context context) {
+        return SessionExpiryQueue.deserialize(prefs(context).getString(KEY_QUEUE, null));
+    }
+
+    private static void save(Context context, SessionExpiryQueue queue) {
+        // commit() so the deadline is on disk before the caller moves on
+        prefs(context).edit().putString(KEY_QUEUE, queue.serialize()).commit();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.smart_attendance_system;
+
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes every session whose deadline has passed, then schedules the next one.
+ * A session is only closed if it is still active, so a replayed job does not close it twice.
+ * A close the server refuses for good is dropped rather than retried.
+ */
+public class SessionExpiryWorker extends Worker {
+
+    private static final String TAG = "SessionExpiryWorker";
+    private static final long TIMEOUT_SECONDS = 30;
+
+    public SessionExpiryWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        SessionExpiryScheduler.onWorkerStarted(context);
+
+        try {
+            long offset = Tasks.await(DatabaseHelper.getInstance().getServerTimeOffset(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            SessionExpiryScheduler.storeServerTimeOffset(context, offset);
+        } catch (Exception e) {
+            Log.w(TAG, "Using cached server time offset: " + e.getMessage());
+        }
+
+        boolean failed = false;
+        for (SessionExpiryQueue.Deadline due : SessionExpiryScheduler.getDue(context, SessionExpiryScheduler.serverNow(context))) {
+            try {
+                if (closeIfActive(due.sessionId)) {
+                    Intent broadcastIntent = new Intent(Constants.ACTION_SESSION_AUTO_CLOSED);
+                    broadcastIntent.setPackage(context.getPackageName());
+                    broadcastIntent.putExtra(Constants.EXTRA_SESSION_ID, due.sessionId);
+                    context.sendBroadcast(broadcastIntent);
+                }
+                SessionExpiryScheduler.remove(context, due.sessionId);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DatabaseHelper.WriteFailedException
+                        && ((DatabaseHelper.WriteFailedException) e.getCause()).isPermanent()) {
+                    Log.e(TAG, "Server refused to auto-close session " + due.sessionId + ", dropping it", e.getCause());
+                    SessionExpiryScheduler.remove(context, due.sessionId);
+                } else {
+                    Log.e(TAG, "Failed to auto-close session: " + due.sessionId, e);
+                    failed = true;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to auto-close session: " + due.sessionId, e);
+                failed = true;
+            }
+        }
+
+        if (failed) {
+            // Failed sessions are still queued; the retry picks them up
+            return Result.retry();
+        }
+        SessionExpiryScheduler.enqueueNext(context);
+        return Result.success();
+    }
+
+    // The close transaction leaves ended, expired and deleted sessions alone, so no status read first
+    private boolean closeIfActive(String sessionId) throws Exception {
+        Map<String, Object> autoCloseFields = new HashMap<>();
+        autoCloseFields.put("auto_closed", true);
+        autoCloseFields.put("auto_close_reason", "Session automatically closed after "
+                + TimeUnit.MILLISECONDS.toMinutes(Constants.SESSION_AUTO_CLOSE_TIME) + " minutes");
+
+        boolean closed = Tasks.await(DatabaseHelper.getInstance().closeAttendanceSession(sessionId, autoCloseFields),
+                TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Log.d(TAG, closed ? "Session auto-closed successfully: " + sessionId
+                : "Session " + sessionId + " is no longer active");
+        return closed;
+    }
+}
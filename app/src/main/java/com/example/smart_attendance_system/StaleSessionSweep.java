@@ -0,0 +1,74 @@
+package com.example.smart_attendance_system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the bulk expiry of sessions left active by a device that never closed them.
+ * Pure Java so the app and the command-line sweeper (tools/) share it.
+ */
+public final class StaleSessionSweep {
+
+    private StaleSessionSweep() {
+    }
+
+    /**
+     * Sessions created before the cutoff. Sessions without created_at are left alone.
+     */
+    public static List<String> findStale(Map<String, Long> createdAtBySession, long cutoff) {
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, Long> session : createdAtBySession.entrySet()) {
+            Long createdAt = session.getValue();
+            if (createdAt != null && createdAt < cutoff) {
+                stale.add(session.getKey());
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Root-relative multi-path update that marks every given session expired and completes it the way
+     * a close does: everyone on the roster not marked present gets an absent entry on the roster and on
+     * their own record, and the final counts are written. Keyed by session id, then enrollment number
+     * to roster status (null when never marked).
+     */
+    public static Map<String, Object> buildExpiryUpdates(Map<String, Map<String, String>> rosterStatusBySession,
+                                                         long now) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> session : rosterStatusBySession.entrySet()) {
+            String sessionId = session.getKey();
+            String sessionPath = Constants.ATTENDANCE_REPORT_REF + "/" + sessionId + "/";
+            int present = 0;
+            int absent = 0;
+            for (Map.Entry<String, String> entry : session.getValue().entrySet()) {
+                if (Constants.ATTENDANCE_PRESENT.equals(entry.getValue())) {
+                    present++;
+                    continue;
+                }
+                absent++;
+                updates.put(sessionPath + Constants.SESSION_ROSTER + "/" + entry.getKey() + "/" + Constants.ROSTER_STATUS,
+                        Constants.ATTENDANCE_ABSENT);
+                updates.put(Constants.STUDENTS_REF + "/" + entry.getKey() + "/" + Constants.STUDENT_ATTENDANCE + "/" + sessionId,
+                        Constants.ATTENDANCE_ABSENT);
+            }
+
+            updates.put(sessionPath + Constants.SESSION_STATUS, Constants.SESSION_EXPIRED);
+            updates.put(sessionPath + Constants.SESSION_ENDED_AT, now);
+            updates.put(sessionPath + "updated_at", now);
+            updates.put(sessionPath + Constants.SESSION_TOTAL_COUNT, present + absent);
+            updates.put(sessionPath + Constants.SESSION_PRESENT_COUNT, present);
+            updates.put(sessionPath + Constants.SESSION_ABSENT_COUNT, absent);
+        }
+        return updates;
+    }
+
+    /**
+     * Whether a session with this status is over and counts towards attendance: ended by hand or
+     * automatically, or expired by the sweep
+     */
+    public static boolean isCompleted(String status) {
+        return Constants.SESSION_ENDED.equals(status) || Constants.SESSION_EXPIRED.equals(status);
+    }
+}
@@ -1,81 +1,88 @@
 package com.example.smart_attendance_system;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseAdapter;
 import android.widget.TextView;
 
-import java.util.List;
+import androidx.annotation.NonNull;
+import androidx.core.util.ObjectsCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class StudentAttendanceAdapter extends BaseAdapter {
-    
-    private Context context;
-    private List<ActivityAttendanceReportStudent.StudentAttendanceRecord> attendanceRecords;
-    private LayoutInflater inflater;
+/**
+ * A student's session history, one row per session, diffed off the main thread on each refresh
+ */
+public class StudentAttendanceAdapter extends ListAdapter<ActivityAttendanceReportStudent.StudentAttendanceRecord, StudentAttendanceAdapter.ViewHolder> {
 
-    public StudentAttendanceAdapter(Context context, List<ActivityAttendanceReportStudent.StudentAttendanceRecord> attendanceRecords) {
-        this.context = context;
-        this.attendanceRecords = attendanceRecords;
-        this.inflater = LayoutInflater.from(context);
-    }
+    private static final DiffUtil.ItemCallback<ActivityAttendanceReportStudent.StudentAttendanceRecord> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ActivityAttendanceReportStudent.StudentAttendanceRecord>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ActivityAttendanceReportStudent.StudentAttendanceRecord oldItem,
+                                               @NonNull ActivityAttendanceReportStudent.StudentAttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getSessionId(), newItem.getSessionId());
+                }
 
-    @Override
-    public int getCount() {
-        return attendanceRecords.size();
+                @Override
+                public boolean areContentsTheSame(@NonNull ActivityAttendanceReportStudent.StudentAttendanceRecord oldItem,
+                                                  @NonNull ActivityAttendanceReportStudent.StudentAttendanceRecord newItem) {
+                    return ObjectsCompat.equals(oldItem.getSubject(), newItem.getSubject())
+                            && ObjectsCompat.equals(oldItem.getDate(), newItem.getDate())
+                            && ObjectsCompat.equals(oldItem.getTime(), newItem.getTime())
+                            && ObjectsCompat.equals(oldItem.getStatus(), newItem.getStatus());
+                }
+            };
+
+    public StudentAttendanceAdapter() {
+        super(ListDiffing.config(DIFF_CALLBACK));
+        setHasStableIds(true);
     }
 
     @Override
-    public Object getItem(int position) {
-        return attendanceRecords.get(position);
+    public long getItemId(int position) {
+        return ListDiffing.stableId(getItem(position).getSessionId());
     }
 
+    @NonNull
     @Override
-    public long getItemId(int position) {
-        return position;
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_student_attendance_record, parent, false);
+        return new ViewHolder(view);
     }
 
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ViewHolder holder;
-        
-        if (convertView == null) {
-            convertView = inflater.inflate(R.layout.item_student_attendance_record, parent, false);
-            holder = new ViewHolder();
-            holder.tv_subject = convertView.findViewById(R.id.tv_subject);
-            holder.tv_date = convertView.findViewById(R.id.tv_date);
-            holder.tv_time = convertView.findViewById(R.id.tv_time);
-            holder.tv_status = convertView.findViewById(R.id.tv_status);
-            convertView.setTag(holder);
-      } else {
-            holder = (ViewHolder) convertView.getTag();
-        }
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        ActivityAttendanceReportStudent.StudentAttendanceRecord record = getItem(position);
 
-        ActivityAttendanceReportStudent.StudentAttendanceRecord record = attendanceRecords.get(position);
-        
         holder.tv_subject.setText(record.getSubject());
         holder.tv_date.setText(record.getDate());
         holder.tv_time.setText(record.getTime());
-        
+
         // Set status with appropriate styling
         if (Constants.ATTENDANCE_PRESENT.equals(record.getStatus())) {
             holder.tv_status.setText("✅ Present");
-            holder.tv_status.setTextColor(context.getResources().getColor(android.R.color.holo_green_dark));
-            convertView.setBackgroundColor(context.getResources().getColor(android.R.color.background_light));
+            holder.tv_status.setTextColor(holder.itemView.getResources().getColor(android.R.color.holo_green_dark));
         } else {
             holder.tv_status.setText("❌ Absent");
-            holder.tv_status.setTextColor(context.getResources().getColor(android.R.color.holo_red_dark));
-            convertView.setBackgroundColor(context.getResources().getColor(android.R.color.background_light));
+            holder.tv_status.setTextColor(holder.itemView.getResources().getColor(android.R.color.holo_red_dark));
         }
-
-        return convertView;
+        holder.itemView.setBackgroundColor(holder.itemView.getResources().getColor(android.R.color.background_light));
     }
 
-    private static class ViewHolder {
-        TextView tv_subject;
-        TextView tv_date;
-        TextView tv_time;
-        TextView tv_status;
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tv_subject;
+        final TextView tv_date;
+        final TextView tv_time;
+        final TextView tv_status;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            tv_subject = itemView.findViewById(R.id.tv_subject);
+            tv_date = itemView.findViewById(R.id.tv_date);
+            tv_time = itemView.findViewById(R.id.tv_time);
+            tv_status = itemView.findViewById(R.id.tv_status);
+        }
     }
-}
\ No newline at end of file
+}
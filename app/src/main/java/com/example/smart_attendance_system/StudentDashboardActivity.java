@@ -38,6 +38,9 @@ public class StudentDashboardActivity extends AppCompatActivity {
         setupClickListeners();
         displayStudentInfo();
         checkLocationPermissionAndWifi();
+
+        // Reference face, active session and camera load in the background while the student reads the dashboard
+        CheckInPipeline.prefetch(this);
     }
 
     private void initializeViews() {
@@ -268,6 +271,9 @@ public class StudentDashboardActivity extends AppCompatActivity {
 
     private void logout() {
         FirebaseAuth.getInstance().signOut();
+        CheckInPipeline.invalidate();
+        ReferenceFaceCache.getInstance(this).clear();
+        FaceRecognitionUtils.cleanup();
         PreferenceManager.clearStudentInfo(this);
 
         Intent intent = new Intent(this, LoginActivity.class);
@@ -316,6 +322,7 @@ public class StudentDashboardActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         updateFaceRegistrationButton();
+        CheckInPipeline.prefetch(this);
         // Recheck WiFi connection when activity resumes
         if (hasLocationPermissions()) {
             checkWifiConnection();
@@ -29,6 +29,9 @@ public class TakeAttendanceActivity extends AppCompatActivity {
         setupSpinners();
         setupClickListeners();
         displayWelcomeMessage();
+
+        // Expire sessions orphaned by a device that never closed them
+        DatabaseHelper.getInstance().expireStaleSessions(System.currentTimeMillis() - Constants.SESSION_STALE_AFTER);
     }
 
     private void initializeViews() {
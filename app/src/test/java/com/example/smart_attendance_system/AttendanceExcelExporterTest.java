@@ -0,0 +1,208 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AttendanceExcelExporterTest {
+
+    // Deterministic pattern so expected counts can be computed without storing the grid
+    private static class GeneratedSemester implements AttendanceExcelExporter.SemesterSource {
+        private final int students;
+        private final int sessions;
+
+        GeneratedSemester(int students, int sessions) {
+            this.students = students;
+            this.sessions = sessions;
+        }
+
+        @Override
+        public int getStudentCount() {
+            return students;
+        }
+
+        @Override
+        public String getEnrollmentNo(int student) {
+            return "EN" + student;
+        }
+
+        @Override
+        public String getStudentName(int student) {
+            return "Student " + student;
+        }
+
+        @Override
+        public int getSessionCount() {
+            return sessions;
+        }
+
+        @Override
+        public String getSessionLabel(int session) {
+            return "S" + session;
+        }
+
+        @Override
+        public boolean isPresent(int student, int session) {
+            return (student + session) % 3 != 0;
+        }
+    }
+
+    @Test
+    public void sessionExportWritesRowsAndSummary() throws Exception {
+        List<AttendanceExcelExporter.SessionRow> rows = new ArrayList<>();
+        rows.add(new AttendanceExcelExporter.SessionRow("EN1", "Asha", "asha@x.com", Constants.ATTENDANCE_PRESENT, "09:05"));
+        rows.add(new AttendanceExcelExporter.SessionRow("EN2", "Ravi", null, Constants.ATTENDANCE_ABSENT, "Not marked"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AttendanceExcelExporter.exportSession("Maths", rows, out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Maths", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Status", sheet.getRow(1).getCell(3).getStringCellValue());
+            assertEquals("Asha", sheet.getRow(2).getCell(1).getStringCellValue());
+            assertEquals("", sheet.getRow(3).getCell(2).getStringCellValue());
+
+            Row summary = sheet.getRow(5);
+            assertEquals(1, (int) summary.getCell(1).getNumericCellValue());
+            assertEquals(2, (int) summary.getCell(3).getNumericCellValue());
+        }
+    }
+
+    @Test
+    public void semesterExportWritesMatrixBeyondRowWindow() throws Exception {
+        int students = AttendanceExcelExporter.ROW_WINDOW * 5;
+        int sessions = 40;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AttendanceExcelExporter.exportSemester("Semester 1", new GeneratedSemester(students, sessions), out);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(students + 1, sheet.getLastRowNum());
+            assertEquals("S39", sheet.getRow(1).getCell(2 + sessions - 1).getStringCellValue());
+
+            for (int student : new int[]{0, 1, students - 1}) {
+                Row row = sheet.getRow(student + 2);
+                int expected = 0;
+                for (int session = 0; session < sessions; session++) {
+                    boolean present = (student + session) % 3 != 0;
+                    assertEquals(present ? "P" : "A", row.getCell(2 + session).getStringCellValue());
+                    if (present) {
+                        expected++;
+                    }
+                }
+                assertEquals("EN" + student, row.getCell(0).getStringCellValue());
+                assertEquals(expected, (int) row.getCell(2 + sessions).getNumericCellValue());
+                assertEquals(sessions, (int) row.getCell(3 + sessions).getNumericCellValue());
+                assertEquals(Math.round(expected * 1000.0 / sessions) / 10.0,
+                        row.getCell(4 + sessions).getNumericCellValue(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void departmentSizedExportKeepsRowWindowAndWritesLastStudent() throws Exception {
+        int students = 3000;
+        int sessions = 200;
+        SXSSFWorkbook workbook = AttendanceExcelExporter.newWorkbook();
+        int[] maxRowsInMemory = new int[1];
+
+        // Checked as each student row is filled, after its row was created
+        GeneratedSemester source = new GeneratedSemester(students, sessions) {
+            @Override
+            public boolean isPresent(int student, int session) {
+                if (session == 0) {
+                    SXSSFSheet sheet = workbook.getSheet("Semester");
+                    maxRowsInMemory[0] = Math.max(maxRowsInMemory[0], student + 2 - sheet.getLastFlushedRowNum());
+                }
+                return super.isPresent(student, session);
+            }
+        };
+
+        File file = File.createTempFile("semester", ".xlsx");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                AttendanceExcelExporter.exportSemester("Department", source, out, workbook);
+            }
+            assertTrue(maxRowsInMemory[0] <= AttendanceExcelExporter.ROW_WINDOW);
+
+            List<String> lastRow = readRow(file, students + 1);
+            int last = students - 1;
+            int expected = 0;
+            for (int session = 0; session < sessions; session++) {
+                if ((last + session) % 3 != 0) {
+                    expected++;
+                }
+            }
+            assertEquals("EN" + last, lastRow.get(0));
+            assertEquals("Student " + last, lastRow.get(1));
+            assertEquals((last % 3 != 0) ? "P" : "A", lastRow.get(2));
+            assertEquals(((last + sessions - 1) % 3 != 0) ? "P" : "A", lastRow.get(1 + sessions));
+            assertEquals(String.valueOf(expected), lastRow.get(2 + sessions));
+            assertEquals(String.valueOf(sessions), lastRow.get(3 + sessions));
+        } finally {
+            file.delete();
+        }
+    }
+
+    // Cell texts of one row of the first sheet, streamed so the whole workbook is never loaded
+    private static List<String> readRow(File file, int rowNum) throws Exception {
+        List<String> cells = new ArrayList<>();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFSheetXMLHandler.SheetContentsHandler contents = new XSSFSheetXMLHandler.SheetContentsHandler() {
+                private int currentRow;
+
+                @Override
+                public void startRow(int row) {
+                    currentRow = row;
+                }
+
+                @Override
+                public void endRow(int row) {
+                }
+
+                @Override
+                public void cell(String reference, String value, XSSFComment comment) {
+                    if (currentRow == rowNum) {
+                        cells.add(value);
+                    }
+                }
+            };
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                    new ReadOnlySharedStringsTable(pkg), contents, new DataFormatter(), false));
+            try (InputStream sheet = reader.getSheetsData().next()) {
+                parser.parse(new InputSource(sheet));
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the local attendance journal.
+ */
+public class AttendanceJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private AttendanceJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "attendance_journal.log");
+        journal = new AttendanceJournal(file);
+    }
+
+    @Test
+    public void append_isVisibleToNewInstance() throws Exception {
+        journal.append(new AttendanceJournal.Entry("E1", "S1", "present", 100L, "Asha\tK"));
+
+        List<AttendanceJournal.Entry> pending = new AttendanceJournal(file).readPending();
+
+        assertEquals(1, pending.size());
+        assertEquals("E1", pending.get(0).enrollmentNo);
+        assertEquals("S1", pending.get(0).sessionId);
+        assertEquals(100L, pending.get(0).markedAt);
+        assertEquals("Asha K", pending.get(0).studentName);
+    }
+
+    @Test
+    public void readPending_keepsLatestEntryPerKey() throws Exception {
+        journal.append(new AttendanceJournal.Entry("E1", "S1", "absent", 100L, null));
+        journal.append(new AttendanceJournal.Entry("E2", "S1", "present", 150L, null));
+        journal.append(new AttendanceJournal.Entry("E1", "S1", "present", 200L, null));
+
+        List<AttendanceJournal.Entry> pending = journal.readPending();
+
+        assertEquals(2, pending.size());
+        assertEquals("E2", pending.get(0).enrollmentNo);
+        assertEquals("present", pending.get(1).status);
+        assertEquals(200L, pending.get(1).markedAt);
+        assertNull(pending.get(1).studentName);
+    }
+
+    @Test
+    public void acknowledge_removesOnlySyncedVersion() throws Exception {
+        AttendanceJournal.Entry first = new AttendanceJournal.Entry("E1", "S1", "present", 100L, null);
+        journal.append(first);
+        journal.append(new AttendanceJournal.Entry("E2", "S1", "present", 110L, null));
+        List<AttendanceJournal.Entry> batch = journal.readPending();
+
+        // Re-marked while the batch was in flight
+        journal.append(new AttendanceJournal.Entry("E2", "S1", "present", 120L, null));
+        journal.acknowledge(batch);
+
+        List<AttendanceJournal.Entry> pending = journal.readPending();
+        assertEquals(1, pending.size());
+        assertEquals(120L, pending.get(0).markedAt);
+        assertNull(journal.findPending("E1", "S1"));
+    }
+
+    @Test
+    public void acknowledge_everythingDeletesFile() throws Exception {
+        journal.append(new AttendanceJournal.Entry("E1", "S1", "present", 100L, null));
+        journal.acknowledge(journal.readPending());
+
+        assertFalse(file.exists());
+        assertTrue(journal.readPending().isEmpty());
+        journal.acknowledge(Collections.<AttendanceJournal.Entry>emptyList());
+    }
+
+    @Test
+    public void readPending_skipsTornLine() throws Exception {
+        journal.append(new AttendanceJournal.Entry("E1", "S1", "present", 100L, null));
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("12\tE2\tS".getBytes(StandardCharsets.UTF_8));
+        }
+
+        journal.append(new AttendanceJournal.Entry("E3", "S1", "present", 300L, null));
+
+        List<AttendanceJournal.Entry> pending = journal.readPending();
+
+        assertEquals(2, pending.size());
+        assertEquals("E1", pending.get(0).enrollmentNo);
+        assertEquals("E3", pending.get(1).enrollmentNo);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_rejectsIncompleteEntry() throws Exception {
+        journal.append(new AttendanceJournal.Entry("E1", null, "present", 1L, null));
+    }
+}
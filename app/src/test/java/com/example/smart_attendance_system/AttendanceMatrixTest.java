@@ -0,0 +1,71 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AttendanceMatrixTest {
+
+    @Test
+    public void countsMatchAcrossWordBoundaries() {
+        AttendanceMatrix matrix = new AttendanceMatrix();
+        int a = matrix.addStudent("EN1", "Asha");
+        int b = matrix.addStudent("EN2", "Ravi");
+
+        // 130 sessions spans three 64-bit words
+        for (int i = 0; i < 130; i++) {
+            int session = matrix.addSession("s" + i, "Session " + i);
+            matrix.setPresent(a, session, true);
+            matrix.setPresent(b, session, i % 2 == 0);
+        }
+
+        assertEquals(130, matrix.getPresentCount(a));
+        assertEquals(65, matrix.getPresentCount(b));
+        assertEquals(50.0, matrix.getPercentage(b), 1e-9);
+        assertEquals(2, matrix.getHeadcount(128));
+        assertEquals(1, matrix.getHeadcount(129));
+        assertTrue(matrix.isPresent(b, 64));
+        assertFalse(matrix.isPresent(b, 65));
+    }
+
+    @Test
+    public void studentsAddedLaterAndRemarksKeepHeadcountsExact() {
+        AttendanceMatrix matrix = new AttendanceMatrix();
+        matrix.setPresent("EN1", "s1", true);
+        matrix.setPresent("EN1", "s1", true);
+        matrix.setPresent("EN2", "s1", true);
+        matrix.setPresent("EN2", "s1", false);
+
+        for (int i = 2; i <= 70; i++) {
+            matrix.addSession("s" + i, null);
+        }
+        int late = matrix.addStudent("EN3", "Late Joiner");
+        matrix.setPresent(late, matrix.getSessionOrdinal("s70"), true);
+
+        assertEquals(1, matrix.getHeadcount(matrix.getSessionOrdinal("s1")));
+        assertEquals(1, matrix.getPresentCount(late));
+        assertEquals("s70", matrix.getSessionLabel(69));
+        assertEquals(-1, matrix.getStudentOrdinal("EN9"));
+    }
+
+    @Test
+    public void defaultersAreBelowThreshold() {
+        AttendanceMatrix matrix = new AttendanceMatrix();
+        for (int i = 0; i < 4; i++) {
+            matrix.addSession("s" + i, null);
+        }
+        // 4/4, 3/4 (exactly 75%), 2/4, 0/4
+        int[] attended = {4, 3, 2, 0};
+        for (int student = 0; student < attended.length; student++) {
+            matrix.addStudent("EN" + student, null);
+            for (int session = 0; session < attended[student]; session++) {
+                matrix.setPresent(student, session, true);
+            }
+        }
+
+        assertArrayEquals(new int[]{2, 3}, matrix.getDefaulters(Constants.DEFAULTER_THRESHOLD_PERCENT));
+    }
+}
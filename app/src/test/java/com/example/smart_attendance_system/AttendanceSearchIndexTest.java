@@ -0,0 +1,75 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+public class AttendanceSearchIndexTest {
+
+    @Test
+    public void matchesAnyFieldCaseInsensitively() {
+        AttendanceSearchIndex.Builder builder = new AttendanceSearchIndex.Builder();
+        builder.add("Asha Verma", "21CS001", "asha@saec.ac.in");
+        builder.add("Ravi Kumar", "21CS002", null);
+        builder.add("Kumari Devi", "21EC010", "kdevi@saec.ac.in");
+        AttendanceSearchIndex index = builder.build();
+
+        assertArrayEquals(new int[]{1, 2}, index.search("KUMAR", null));
+        assertArrayEquals(new int[]{0, 1}, index.search("21cs", null));
+        assertArrayEquals(new int[]{0, 2}, index.search(" saec ", null));
+        assertArrayEquals(new int[]{0, 1, 2}, index.search("", null));
+        assertArrayEquals(new int[]{2}, index.search("i", ordinal -> ordinal != 0 && ordinal != 1));
+        assertArrayEquals(new int[0], index.search("zzz", null));
+        // Matches never span two fields
+        assertArrayEquals(new int[0], index.search("verma21", null));
+    }
+
+    @Test
+    public void agreesWithBruteForceOnGeneratedRoster() {
+        Random random = new Random(7);
+        String[][] records = new String[3000][];
+        AttendanceSearchIndex.Builder builder = new AttendanceSearchIndex.Builder();
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new String[]{randomWord(random) + " " + randomWord(random),
+                    String.format(Locale.ROOT, "21CS%04d", i), randomWord(random) + "@saec.ac.in"};
+            builder.add(records[i]);
+        }
+        AttendanceSearchIndex index = builder.build();
+        AttendanceSearchIndex.Filter evenOnly = ordinal -> ordinal % 2 == 0;
+
+        for (String query : new String[]{"a", "ka", "kar", "21cs00", "ec.ac", "an r", "qqq", "0042"}) {
+            assertArrayEquals(query, bruteForce(records, query, null), index.search(query, null));
+            assertArrayEquals(query, bruteForce(records, query, evenOnly), index.search(query, evenOnly));
+        }
+    }
+
+    private static int[] bruteForce(String[][] records, String query, AttendanceSearchIndex.Filter filter) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        int[] result = new int[records.length];
+        int count = 0;
+        for (int i = 0; i < records.length; i++) {
+            boolean match = false;
+            for (String field : records[i]) {
+                match |= field.toLowerCase(Locale.ROOT).contains(needle);
+            }
+            if (match && (filter == null || filter.accept(i))) {
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static String randomWord(Random random) {
+        String syllables = "kaemariruvanshdeto";
+        StringBuilder word = new StringBuilder();
+        int length = 3 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append(syllables.charAt(random.nextInt(syllables.length())));
+        }
+        return word.toString();
+    }
+}
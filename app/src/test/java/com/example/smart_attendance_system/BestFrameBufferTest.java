@@ -0,0 +1,40 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BestFrameBufferTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void keepsBestFramesWithinWindow() {
+        BestFrameBuffer<String> buffer = new BestFrameBuffer<>(3, 1000 * MS);
+        assertNull(buffer.best(0));
+
+        assertTrue(buffer.offer("a", 0.5f, 0));
+        assertTrue(buffer.offer("b", 0.9f, 100 * MS));
+        assertTrue(buffer.offer("c", 0.4f, 200 * MS));
+        assertEquals("b", buffer.best(300 * MS));
+
+        // Full: only frames beating the lowest score get in, and they replace it
+        assertFalse(buffer.isWorthKeeping(0.3f, 300 * MS));
+        assertFalse(buffer.offer("d", 0.3f, 300 * MS));
+        assertTrue(buffer.isWorthKeeping(0.6f, 300 * MS));
+        assertTrue(buffer.offer("e", 0.6f, 300 * MS));
+        assertEquals(3, buffer.size(300 * MS));
+
+        // "b" ages out of the window; expired slots take any newcomer
+        assertEquals("e", buffer.best(1200 * MS));
+        assertTrue(buffer.offer("f", 0.1f, 1200 * MS));
+        assertEquals(2, buffer.size(1200 * MS));
+
+        buffer.clear();
+        assertNull(buffer.best(1200 * MS));
+        assertEquals(0, buffer.size(1200 * MS));
+    }
+}
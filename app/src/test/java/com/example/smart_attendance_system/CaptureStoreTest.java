@@ -0,0 +1,45 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CaptureStoreTest {
+
+    private long now = 1000L;
+
+    @Test
+    public void takeReleasesTheFrame() {
+        CaptureStore<String> store = new CaptureStore<>(4, 60000L, () -> now);
+        String first = store.put("frame-1");
+        String second = store.put("frame-2");
+
+        assertNotEquals(first, second);
+        assertEquals("frame-2", store.take(second));
+        assertNull(store.take(second));
+        assertEquals(1, store.size());
+
+        store.release(first);
+        assertNull(store.take(first));
+        assertNull(store.take(null));
+    }
+
+    @Test
+    public void unclaimedFramesAreEvicted() {
+        CaptureStore<String> store = new CaptureStore<>(2, 60000L, () -> now);
+        String oldest = store.put("frame-1");
+        String middle = store.put("frame-2");
+        String newest = store.put("frame-3");
+
+        // Over capacity: the oldest is dropped
+        assertNull(store.take(oldest));
+        assertEquals("frame-2", store.take(middle));
+
+        // Past the age limit
+        now += 60001L;
+        assertNull(store.take(newest));
+        assertEquals(0, store.size());
+    }
+}
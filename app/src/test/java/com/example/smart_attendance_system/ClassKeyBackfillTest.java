@@ -0,0 +1,43 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the session class_key backfill plan.
+ */
+public class ClassKeyBackfillTest {
+
+    @Test
+    public void buildSessionUpdates_fillsOnlyLegacySessions() {
+        Map<String, ClassKeyBackfill.SessionFields> sessions = new HashMap<>();
+        sessions.put("legacy", new ClassKeyBackfill.SessionFields("CSE", "3", "A", null));
+        sessions.put("current", new ClassKeyBackfill.SessionFields("IT", "2", "B", "IT_2_B"));
+        sessions.put("incomplete", new ClassKeyBackfill.SessionFields("ECE", null, "C", null));
+
+        Map<String, Object> updates = ClassKeyBackfill.buildSessionUpdates(sessions);
+
+        assertEquals(1, updates.size());
+        assertEquals("CSE_3_A", updates.get("attendance_sessions/legacy/class_key"));
+    }
+
+    @Test
+    public void buildClassRosterUpdates_indexesNameAndEmailByClass() {
+        Map<String, ClassKeyBackfill.StudentFields> students = new HashMap<>();
+        students.put("EN1", new ClassKeyBackfill.StudentFields("Asha", "asha@saec.ac.in", "CSE", "3", "A"));
+        students.put("EN2", new ClassKeyBackfill.StudentFields(null, null, "IT", "2", "B"));
+        students.put("EN3", new ClassKeyBackfill.StudentFields("Ravi", "ravi@saec.ac.in", "ECE", "1", null));
+
+        Map<String, Object> updates = ClassKeyBackfill.buildClassRosterUpdates(students);
+
+        assertEquals(4, updates.size());
+        assertEquals("Asha", updates.get("class_rosters/CSE_3_A/EN1/name"));
+        assertEquals("asha@saec.ac.in", updates.get("class_rosters/CSE_3_A/EN1/email"));
+        assertEquals("Unknown", updates.get("class_rosters/IT_2_B/EN2/name"));
+        assertEquals("Unknown", updates.get("class_rosters/IT_2_B/EN2/email"));
+    }
+}
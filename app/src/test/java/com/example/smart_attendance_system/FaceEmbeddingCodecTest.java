@@ -0,0 +1,74 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the int8 face embedding wire format.
+ */
+public class FaceEmbeddingCodecTest {
+
+    @Test
+    public void roundTrip_preservesSimilarity() {
+        int size = FaceEmbeddingExtractor.INPUT_SIZE;
+        Random random = new Random(21);
+        int[] pixels = new int[size * size];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        float[] embedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        new FaceEmbeddingExtractor().extract(pixels, 0, size, embedding);
+
+        float[] decoded = FaceEmbeddingCodec.decode(FaceEmbeddingCodec.encode(embedding));
+
+        assertEquals(embedding.length, decoded.length);
+        assertEquals(1.0f, FaceEmbeddingExtractor.cosineSimilarity(embedding, decoded), 1e-4f);
+    }
+
+    @Test
+    public void encode_isMuchSmallerThanFloats() {
+        float[] embedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        embedding[0] = 1.0f;
+
+        String encoded = FaceEmbeddingCodec.encode(embedding);
+
+        assertEquals(7 + embedding.length, Base64.getDecoder().decode(encoded).length);
+    }
+
+    @Test
+    public void decode_intoCallerArray() {
+        float[] embedding = {0.5f, -0.25f, 0.0f, 1.0f};
+        float[] out = new float[4];
+
+        FaceEmbeddingCodec.decode(FaceEmbeddingCodec.encode(embedding), out);
+
+        assertArrayEquals(embedding, out, 1.0f / 127);
+    }
+
+    @Test
+    public void encode_handlesZeroVector() {
+        float[] decoded = FaceEmbeddingCodec.decode(FaceEmbeddingCodec.encode(new float[8]));
+        assertArrayEquals(new float[8], decoded, 0.0f);
+    }
+
+    @Test
+    public void isSupported_rejectsLegacyAndCorruptValues() {
+        byte[] wrongVersion = Base64.getDecoder().decode(FaceEmbeddingCodec.encode(new float[]{1.0f}));
+        wrongVersion[0] = 9;
+
+        assertFalse(FaceEmbeddingCodec.isSupported(null));
+        assertFalse(FaceEmbeddingCodec.isSupported(""));
+        assertFalse(FaceEmbeddingCodec.isSupported(Base64.getEncoder().encodeToString(new byte[]{1, 0})));
+        assertFalse(FaceEmbeddingCodec.isSupported(Base64.getEncoder().encodeToString(wrongVersion)));
+        assertTrue(FaceEmbeddingCodec.isSupported(FaceEmbeddingCodec.encode(new float[]{1.0f})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsDimensionMismatch() {
+        FaceEmbeddingCodec.decode(FaceEmbeddingCodec.encode(new float[4]), new float[5]);
+    }
+}
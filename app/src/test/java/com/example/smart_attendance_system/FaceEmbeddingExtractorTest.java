@@ -0,0 +1,126 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the pixel-array embedding extractor.
+ */
+public class FaceEmbeddingExtractorTest {
+
+    private static final int SIZE = FaceEmbeddingExtractor.INPUT_SIZE;
+
+    @Test
+    public void extract_matchesPerPixelReference() {
+        int[] pixels = randomPixels(SIZE * SIZE, 42);
+        float[] expected = referenceEmbedding(pixels, 0, SIZE);
+        float[] actual = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+
+        new FaceEmbeddingExtractor().extract(pixels, 0, SIZE, actual);
+
+        assertArrayEquals(expected, actual, 1e-6f);
+    }
+
+    @Test
+    public void extract_honoursOffsetAndStride() {
+        int stride = SIZE + 16;
+        int offset = 3 * stride + 5;
+        int[] padded = randomPixels(offset + SIZE * stride, 7);
+        float[] expected = referenceEmbedding(padded, offset, stride);
+        float[] actual = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+
+        new FaceEmbeddingExtractor().extract(padded, offset, stride, actual);
+
+        assertArrayEquals(expected, actual, 1e-6f);
+    }
+
+    @Test
+    public void extract_reusesBuffersAcrossCalls() {
+        FaceEmbeddingExtractor extractor = new FaceEmbeddingExtractor();
+        int[] first = randomPixels(SIZE * SIZE, 1);
+        int[] second = randomPixels(SIZE * SIZE, 2);
+        float[] out = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+
+        extractor.extract(first, 0, SIZE, out);
+        System.arraycopy(second, 0, extractor.getPixelBuffer(), 0, second.length);
+        extractor.extract(out);
+
+        assertArrayEquals(referenceEmbedding(second, 0, SIZE), out, 1e-6f);
+    }
+
+    @Test
+    public void extract_producesUnitVector() {
+        float[] out = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        new FaceEmbeddingExtractor().extract(randomPixels(SIZE * SIZE, 3), 0, SIZE, out);
+
+        double norm = 0;
+        for (float value : out) {
+            norm += value * value;
+        }
+        assertEquals(1.0, Math.sqrt(norm), 1e-4);
+        assertEquals(1.0f, FaceEmbeddingExtractor.cosineSimilarity(out, out), 1e-5f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extract_rejectsShortOutput() {
+        new FaceEmbeddingExtractor().extract(new float[10]);
+    }
+
+    @Test
+    public void cosineSimilarity_handlesMismatchedInput() {
+        assertEquals(0.0f, FaceEmbeddingExtractor.cosineSimilarity(new float[3], new float[4]), 0.0f);
+        assertEquals(0.0f, FaceEmbeddingExtractor.cosineSimilarity(null, new float[4]), 0.0f);
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    // Straight port of the original getPixel-based loop
+    private static float[] referenceEmbedding(int[] pixels, int offset, int stride) {
+        float[] embedding = new float[512];
+        int regionSize = 8;
+        int regionsPerRow = SIZE / regionSize;
+        int embeddingIndex = 0;
+
+        for (int row = 0; row < regionsPerRow && embeddingIndex < embedding.length - 3; row++) {
+            for (int col = 0; col < regionsPerRow && embeddingIndex < embedding.length - 3; col++) {
+                float avgR = 0, avgG = 0, avgB = 0;
+                int pixelCount = 0;
+                for (int y = row * regionSize; y < (row + 1) * regionSize; y++) {
+                    for (int x = col * regionSize; x < (col + 1) * regionSize; x++) {
+                        int pixel = pixels[offset + y * stride + x];
+                        avgR += (pixel >> 16) & 0xFF;
+                        avgG += (pixel >> 8) & 0xFF;
+                        avgB += pixel & 0xFF;
+                        pixelCount++;
+                    }
+                }
+                embedding[embeddingIndex++] = (avgR / pixelCount) / 255.0f;
+                embedding[embeddingIndex++] = (avgG / pixelCount) / 255.0f;
+                embedding[embeddingIndex++] = (avgB / pixelCount) / 255.0f;
+            }
+        }
+        while (embeddingIndex < embedding.length) {
+            embedding[embeddingIndex++] = 0.5f;
+        }
+
+        float norm = 0;
+        for (float value : embedding) {
+            norm += value * value;
+        }
+        norm = (float) Math.sqrt(norm);
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] /= norm;
+        }
+        return embedding;
+    }
+}
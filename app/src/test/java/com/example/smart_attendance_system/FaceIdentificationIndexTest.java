@@ -0,0 +1,123 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the 1:N identification index.
+ */
+public class FaceIdentificationIndexTest {
+
+    private static final int DIM = FaceEmbeddingExtractor.EMBEDDING_SIZE;
+
+    @Test
+    public void topK_matchesBruteForceRanking() {
+        Random random = new Random(11);
+        FaceIdentificationIndex index = new FaceIdentificationIndex(DIM, 4);
+        float[][] embeddings = new float[103][];
+        for (int i = 0; i < embeddings.length; i++) {
+            embeddings[i] = randomVector(random);
+            index.put("E" + i, embeddings[i]);
+        }
+        float[] probe = randomVector(random);
+
+        List<FaceIdentificationIndex.Match> matches = index.topK(probe, 5);
+
+        assertEquals(5, matches.size());
+        float previous = Float.MAX_VALUE;
+        for (FaceIdentificationIndex.Match match : matches) {
+            int row = Integer.parseInt(match.enrollmentNo.substring(1));
+            assertEquals(FaceEmbeddingExtractor.cosineSimilarity(probe, embeddings[row]), match.score, 1e-5f);
+            assertTrue(match.score <= previous);
+            previous = match.score;
+        }
+        // Nothing outside the top five scores higher than the fifth match
+        for (int i = 0; i < embeddings.length; i++) {
+            boolean returned = false;
+            for (FaceIdentificationIndex.Match match : matches) {
+                returned |= match.enrollmentNo.equals("E" + i);
+            }
+            if (!returned) {
+                assertTrue(FaceEmbeddingExtractor.cosineSimilarity(probe, embeddings[i]) <= previous + 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    public void identify_findsEnrolledStudentFromNoisyProbe() {
+        Random random = new Random(5);
+        FaceIdentificationIndex index = new FaceIdentificationIndex();
+        float[] target = null;
+        for (int i = 0; i < 500; i++) {
+            float[] embedding = randomVector(random);
+            if (i == 321) {
+                target = embedding;
+            }
+            index.put("ENR" + i, embedding);
+        }
+        float[] probe = target.clone();
+        for (int i = 0; i < probe.length; i++) {
+            probe[i] += (random.nextFloat() - 0.5f) * 0.05f;
+        }
+
+        FaceIdentificationIndex.Match match = index.identify(probe, 0.9f);
+
+        assertNotNull(match);
+        assertEquals("ENR321", match.enrollmentNo);
+    }
+
+    @Test
+    public void put_replacesExistingEnrollment() {
+        Random random = new Random(3);
+        FaceIdentificationIndex index = new FaceIdentificationIndex(DIM, 4);
+        float[] updated = randomVector(random);
+        index.put("A", randomVector(random));
+        index.put("A", updated);
+
+        assertEquals(1, index.size());
+        assertEquals(1.0f, index.topK(updated, 1).get(0).score, 1e-5f);
+    }
+
+    @Test
+    public void remove_keepsRemainingRowsAddressable() {
+        Random random = new Random(9);
+        FaceIdentificationIndex index = new FaceIdentificationIndex(DIM, 4);
+        float[] a = randomVector(random);
+        float[] b = randomVector(random);
+        float[] c = randomVector(random);
+        index.put("A", a);
+        index.put("B", b);
+        index.put("C", c);
+
+        assertTrue(index.remove("A"));
+        assertFalse(index.remove("A"));
+
+        assertEquals(2, index.size());
+        assertEquals("C", index.topK(c, 1).get(0).enrollmentNo);
+        assertEquals("B", index.topK(b, 1).get(0).enrollmentNo);
+    }
+
+    @Test
+    public void topK_onEmptyIndexReturnsNothing() {
+        FaceIdentificationIndex index = new FaceIdentificationIndex();
+        assertTrue(index.topK(new float[DIM], 3).isEmpty());
+        assertNull(index.identify(new float[DIM], 0.5f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_rejectsWrongDimension() {
+        new FaceIdentificationIndex().put("A", new float[DIM - 1]);
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            vector[i] = random.nextFloat() - 0.5f;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FaceTrackingGateTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void readyOnlyAfterConsecutiveGoodFramesOfSameFace() {
+        FaceTrackingGate gate = new FaceTrackingGate(3, 4);
+        int[] checks = new int[1];
+        FaceTrackingGate.QualityCheck good = () -> {
+            checks[0]++;
+            return true;
+        };
+
+        assertEquals(FaceTrackingGate.Status.STABILIZING, gate.onFaces(1, 7, 100, 100, 300, 300, good));
+        assertTrue(gate.wasKeyframe());
+        assertEquals(FaceTrackingGate.Status.STABILIZING, gate.onFaces(1, 7, 105, 102, 305, 302, good));
+        assertFalse(gate.wasKeyframe());
+        assertEquals(FaceTrackingGate.Status.READY, gate.onFaces(1, 7, 103, 101, 303, 301, good));
+        assertEquals(FaceTrackingGate.Status.READY, gate.onFaces(1, 7, 103, 101, 303, 301, good));
+        assertEquals(1, checks[0]);
+        // Every fourth frame after a keyframe is checked again, even for a steady face
+        assertEquals(FaceTrackingGate.Status.READY, gate.onFaces(1, 7, 103, 101, 303, 301, good));
+        assertTrue(gate.wasKeyframe());
+        assertEquals(2, checks[0]);
+
+        // A different tracked face starts over
+        assertEquals(FaceTrackingGate.Status.STABILIZING, gate.onFaces(1, 8, 103, 101, 303, 301, good));
+        assertEquals(3, checks[0]);
+        // A jump of the box forces a keyframe; a failed check resets the streak
+        assertEquals(FaceTrackingGate.Status.LOW_QUALITY,
+                gate.onFaces(1, 8, 400, 100, 600, 300, () -> false));
+        assertEquals(FaceTrackingGate.Status.LOW_QUALITY, gate.onFaces(1, 8, 400, 100, 600, 300, good));
+        assertEquals(FaceTrackingGate.Status.MULTIPLE_FACES, gate.onFaces(2, null, 0, 0, 0, 0, good));
+        assertEquals(FaceTrackingGate.Status.STABILIZING, gate.onFaces(1, 8, 400, 100, 600, 300, good));
+        assertEquals(FaceTrackingGate.Status.NO_FACE, gate.onFaces(0, null, 0, 0, 0, 0, good));
+    }
+
+    @Test
+    public void skipsFramesToMatchDetectorLatency() {
+        FaceTrackingGate gate = new FaceTrackingGate(1, 10);
+        long now = 0;
+        assertTrue(gate.shouldAnalyze(now));
+        gate.recordDetectorLatency(40 * MS);
+        assertEquals(80 * MS, gate.getAnalysisIntervalNanos());
+
+        int analyzed = 0;
+        for (int frame = 1; frame <= 30; frame++) {
+            now += 33 * MS;
+            if (gate.shouldAnalyze(now)) {
+                analyzed++;
+            }
+        }
+        // Roughly one in three frames at 30 fps against an 80ms interval
+        assertEquals(10, analyzed);
+
+        gate.onFaces(1, 1, 0, 0, 200, 200, () -> true);
+        assertEquals(160 * MS, gate.getAnalysisIntervalNanos());
+        gate.reset();
+        assertTrue(gate.shouldAnalyze(now));
+        assertEquals(0, gate.getAnalysisIntervalNanos());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FaceWorkSchedulerTest {
+
+    @Test
+    public void runsHigherLanesFirstAndDropsOldestPreview() throws Exception {
+        FaceWorkScheduler scheduler = new FaceWorkScheduler(1);
+        CountDownLatch blocker = blockWorker(scheduler);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<String> dropped = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        Object owner = new Object();
+        for (String frame : new String[]{"frame1", "frame2", "frame3"}) {
+            scheduler.submit(FaceWorkScheduler.Lane.PREVIEW, owner, handle -> {
+                order.add(frame);
+                done.countDown();
+            }, handle -> dropped.add(frame));
+        }
+        scheduler.submit(FaceWorkScheduler.Lane.BACKGROUND, owner, handle -> {
+            order.add("index");
+            done.countDown();
+        }, null);
+        scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, owner, handle -> {
+            order.add("verify");
+            done.countDown();
+        }, null);
+
+        assertEquals(Collections.singletonList("frame1"), dropped);
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("verify", "index", "frame2", "frame3"), order);
+
+        FaceWorkScheduler.LaneMetrics preview = scheduler.getMetrics(FaceWorkScheduler.Lane.PREVIEW);
+        assertEquals(3, preview.submitted);
+        assertEquals(1, preview.dropped);
+        assertEquals(2, preview.maxQueueDepth);
+        assertTrue(preview.maxWaitMillis > 0);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void rejectsWhenFullAndCancelsByOwner() throws Exception {
+        FaceWorkScheduler scheduler = new FaceWorkScheduler(1);
+        CountDownLatch blocker = blockWorker(scheduler);
+
+        Object activity = new Object();
+        Object other = new Object();
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        int[] rejected = new int[1];
+        int[] cancelled = new int[1];
+        for (int i = 0; i < 10; i++) {
+            int id = i;
+            scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, i % 2 == 0 ? activity : other,
+                    handle -> ran.add(id), handle -> {
+                        if (handle.isCancelled()) {
+                            cancelled[0]++;
+                        } else {
+                            rejected[0]++;
+                        }
+                    });
+        }
+        // Capacity 8: the last two are rejected rather than displacing queued verifications
+        assertEquals(2, rejected[0]);
+
+        FaceWorkScheduler.Handle single = scheduler.submit(FaceWorkScheduler.Lane.BACKGROUND, other,
+                handle -> ran.add(100), null);
+        single.cancel();
+        assertTrue(single.isCancelled());
+
+        assertEquals(4, scheduler.cancelAll(activity));
+        assertEquals(4, cancelled[0]);
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit(FaceWorkScheduler.Lane.PREVIEW, other, handle -> done.countDown(), null);
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(1, 3, 5, 7), ran);
+        FaceWorkScheduler.LaneMetrics verification = scheduler.getMetrics(FaceWorkScheduler.Lane.VERIFICATION);
+        assertEquals(4, verification.cancelled);
+        assertEquals(0, verification.queueDepth);
+        assertEquals(1, scheduler.getMetrics(FaceWorkScheduler.Lane.BACKGROUND).cancelled);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void failedWorkIsReleasedAndWorkerKeepsRunning() throws Exception {
+        FaceWorkScheduler scheduler = new FaceWorkScheduler(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch next = new CountDownLatch(1);
+
+        scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, null, handle -> {
+            throw new IllegalStateException("model not loaded");
+        }, handle -> released.countDown());
+        scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, null, handle -> next.countDown(), null);
+
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void workThatDeliveredBeforeFailingIsNotReportedDropped() throws Exception {
+        FaceWorkScheduler scheduler = new FaceWorkScheduler(1);
+        AtomicInteger dropped = new AtomicInteger();
+        CountDownLatch next = new CountDownLatch(1);
+
+        scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, null, handle -> {
+            handle.markDelivered();
+            throw new IllegalStateException("callback failed");
+        }, handle -> dropped.incrementAndGet());
+        scheduler.submit(FaceWorkScheduler.Lane.VERIFICATION, null, handle -> next.countDown(), null);
+
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertEquals(0, dropped.get());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shuttingDownDefaultStartsAFreshOne() {
+        FaceWorkScheduler first = FaceWorkScheduler.getDefault();
+        first.shutdown();
+        FaceWorkScheduler second = FaceWorkScheduler.getDefault();
+        assertNotSame(first, second);
+        second.shutdown();
+    }
+
+    // Occupies the only worker until the returned latch is released
+    private static CountDownLatch blockWorker(FaceWorkScheduler scheduler) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(FaceWorkScheduler.Lane.BACKGROUND, null, handle -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.smart_attendance_system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+public class ReferenceFaceDiskStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsOnlyTheStoredVersion() throws Exception {
+        ReferenceFaceDiskStore store = new ReferenceFaceDiskStore(new File(folder.getRoot(), "faces"));
+        store.write("21CS001", 1000L, "AQIDBA==");
+
+        assertEquals("AQIDBA==", store.read("21CS001", 1000L));
+        assertNull(store.read("21CS001", 2000L));
+        assertNull(store.read("21CS002", 1000L));
+
+        store.write("21CS001", 2000L, "BQYHCA==");
+        assertEquals("BQYHCA==", store.read("21CS001", 2000L));
+        assertNull(store.read("21CS001", 1000L));
+
+        store.remove("21CS001");
+        assertNull(store.read("21CS001", 2000L));
+    }
+
+    @Test
+    public void corruptPayloadIsAMiss() throws Exception {
+        File directory = folder.getRoot();
+        ReferenceFaceDiskStore store = new ReferenceFaceDiskStore(directory);
+        store.write("21CS001", 5L, "AQIDBAUGBwg=");
+
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory, "21CS001.ref"), "rw")) {
+            file.seek(file.length() - 1);
+            file.write('x');
+        }
+        assertNull(store.read("21CS001", 5L));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the session close deadline queue.
+ */
+public class SessionExpiryQueueTest {
+
+    @Test
+    public void pollDue_returnsOnlyExpiredInDeadlineOrder() {
+        SessionExpiryQueue queue = new SessionExpiryQueue();
+        queue.schedule("late", 300L);
+        queue.schedule("early", 100L);
+        queue.schedule("middle", 200L);
+
+        List<SessionExpiryQueue.Deadline> due = queue.pollDue(200L);
+
+        assertEquals(2, due.size());
+        assertEquals("early", due.get(0).sessionId);
+        assertEquals("middle", due.get(1).sessionId);
+        assertEquals(1, queue.size());
+        assertEquals(300L, queue.nextDeadline());
+    }
+
+    @Test
+    public void schedule_sameSessionMovesDeadline() {
+        SessionExpiryQueue queue = new SessionExpiryQueue();
+        queue.schedule("s1", 100L);
+        queue.schedule("s2", 150L);
+        queue.schedule("s1", 500L);
+
+        assertEquals(2, queue.size());
+        assertEquals(150L, queue.nextDeadline());
+        assertEquals("s2", queue.pollDue(200L).get(0).sessionId);
+        assertTrue(queue.contains("s1"));
+    }
+
+    @Test
+    public void cancel_removesSession() {
+        SessionExpiryQueue queue = new SessionExpiryQueue();
+        queue.schedule("s1", 100L);
+
+        assertTrue(queue.cancel("s1"));
+        assertFalse(queue.cancel("s1"));
+        assertEquals(-1L, queue.nextDeadline());
+        assertTrue(queue.pollDue(Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void serialize_roundTripsAndSkipsCorruptLines() {
+        SessionExpiryQueue queue = new SessionExpiryQueue();
+        queue.schedule("session_CSE_3_A_1", 1000L);
+        queue.schedule("session_IT_2_B_2", 500L);
+
+        SessionExpiryQueue restored = SessionExpiryQueue.deserialize(queue.serialize() + "oops\nx y\n");
+
+        assertEquals(2, restored.size());
+        assertEquals(500L, restored.nextDeadline());
+        assertTrue(restored.contains("session_CSE_3_A_1"));
+        assertEquals(0, SessionExpiryQueue.deserialize(null).size());
+    }
+}
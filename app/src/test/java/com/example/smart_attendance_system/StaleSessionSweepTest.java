@@ -0,0 +1,73 @@
+package com.example.smart_attendance_system;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the stale session expiry plan.
+ */
+public class StaleSessionSweepTest {
+
+    @Test
+    public void findStale_keepsOnlySessionsBeforeCutoff() {
+        Map<String, Long> createdAt = new HashMap<>();
+        createdAt.put("old", 100L);
+        createdAt.put("edge", 500L);
+        createdAt.put("fresh", 900L);
+        createdAt.put("legacy", null);
+
+        List<String> stale = StaleSessionSweep.findStale(createdAt, 500L);
+
+        assertEquals(Arrays.asList("old"), stale);
+    }
+
+    @Test
+    public void buildExpiryUpdates_writesStatusAndEndTimePerSession() {
+        Map<String, Map<String, String>> rosters = new HashMap<>();
+        rosters.put("s1", new HashMap<>());
+        rosters.put("s2", new HashMap<>());
+
+        Map<String, Object> updates = StaleSessionSweep.buildExpiryUpdates(rosters, 42L);
+
+        assertEquals(12, updates.size());
+        assertEquals(Constants.SESSION_EXPIRED, updates.get("attendance_sessions/s1/status"));
+        assertEquals(42L, updates.get("attendance_sessions/s2/ended_at"));
+        assertEquals(0, updates.get("attendance_sessions/s2/total_count"));
+        assertTrue(StaleSessionSweep.buildExpiryUpdates(new HashMap<>(), 42L).isEmpty());
+    }
+
+    @Test
+    public void buildExpiryUpdates_marksUnmarkedStudentsAbsentAndCounts() {
+        Map<String, String> roster = new HashMap<>();
+        roster.put("EN1", Constants.ATTENDANCE_PRESENT);
+        roster.put("EN2", null);
+        roster.put("EN3", Constants.ATTENDANCE_ABSENT);
+        Map<String, Map<String, String>> rosters = new HashMap<>();
+        rosters.put("s1", roster);
+
+        Map<String, Object> updates = StaleSessionSweep.buildExpiryUpdates(rosters, 42L);
+
+        assertEquals(Constants.ATTENDANCE_ABSENT, updates.get("attendance_sessions/s1/roster/EN2/status"));
+        assertEquals(Constants.ATTENDANCE_ABSENT, updates.get("students/EN2/attendance/s1"));
+        assertEquals(Constants.ATTENDANCE_ABSENT, updates.get("students/EN3/attendance/s1"));
+        assertFalse(updates.containsKey("attendance_sessions/s1/roster/EN1/status"));
+        assertFalse(updates.containsKey("students/EN1/attendance/s1"));
+        assertEquals(3, updates.get("attendance_sessions/s1/total_count"));
+        assertEquals(1, updates.get("attendance_sessions/s1/present_count"));
+        assertEquals(2, updates.get("attendance_sessions/s1/absent_count"));
+    }
+
+    @Test
+    public void isCompleted_countsEndedAndExpiredSessions() {
+        assertTrue(StaleSessionSweep.isCompleted(Constants.SESSION_ENDED));
+        assertTrue(StaleSessionSweep.isCompleted(Constants.SESSION_EXPIRED));
+        assertFalse(StaleSessionSweep.isCompleted(Constants.SESSION_ACTIVE));
+        assertFalse(StaleSessionSweep.isCompleted(null));
+    }
+}
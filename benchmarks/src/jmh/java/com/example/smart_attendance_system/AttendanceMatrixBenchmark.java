@@ -0,0 +1,85 @@
+package com.example.smart_attendance_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semester-wide queries over the bitset attendance matrix, up to a 5,000 x 500 department.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttendanceMatrixBenchmark {
+
+    @Param({"60", "5000"})
+    public int students;
+
+    @Param({"40", "500"})
+    public int sessions;
+
+    private AttendanceMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(2024);
+        matrix = new AttendanceMatrix();
+        for (int s = 0; s < sessions; s++) {
+            matrix.addSession("session" + s, null);
+        }
+        for (int st = 0; st < students; st++) {
+            int student = matrix.addStudent("ENR" + st, "Student " + st);
+            for (int s = 0; s < sessions; s++) {
+                matrix.setPresent(student, s, random.nextInt(100) < 80);
+            }
+        }
+    }
+
+    @Benchmark
+    public double allPercentages() {
+        double sum = 0;
+        for (int student = 0; student < students; student++) {
+            sum += matrix.getPercentage(student);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] defaulters() {
+        return matrix.getDefaulters(Constants.DEFAULTER_THRESHOLD_PERCENT);
+    }
+
+    @Benchmark
+    public long allHeadcounts() {
+        long sum = 0;
+        for (int session = 0; session < sessions; session++) {
+            sum += matrix.getHeadcount(session);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public AttendanceMatrix build() {
+        AttendanceMatrix built = new AttendanceMatrix();
+        for (int s = 0; s < sessions; s++) {
+            built.addSession("session" + s, null);
+        }
+        for (int student = 0; student < students; student++) {
+            int ordinal = built.addStudent("ENR" + student, null);
+            for (int s = 0; s < sessions; s++) {
+                if (matrix.isPresent(student, s)) {
+                    built.setPresent(ordinal, s, true);
+                }
+            }
+        }
+        return built;
+    }
+}
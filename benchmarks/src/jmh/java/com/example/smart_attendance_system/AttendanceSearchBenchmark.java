@@ -0,0 +1,73 @@
+package com.example.smart_attendance_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keystroke against a department list; the budget is a 16 ms frame at 3,000 students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttendanceSearchBenchmark {
+
+    @Param({"500", "3000"})
+    public int students;
+
+    @Param({"a", "ku", "kum", "21cs01", "saec.ac"})
+    public String query;
+
+    private AttendanceSearchIndex index;
+    private String[][] records;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(2024);
+        String[] names = {"Asha", "Ravi", "Kumar", "Devi", "Verma", "Singh", "Priya", "Arjun", "Meena", "Rahul"};
+        records = new String[students][];
+        AttendanceSearchIndex.Builder builder = new AttendanceSearchIndex.Builder();
+        for (int i = 0; i < students; i++) {
+            String name = names[random.nextInt(names.length)] + " " + names[random.nextInt(names.length)];
+            records[i] = new String[]{name, "21CS" + i, name.replace(' ', '.').toLowerCase() + i + "@saec.ac.in"};
+            builder.add(records[i]);
+        }
+        index = builder.build();
+    }
+
+    @Benchmark
+    public int[] indexedSearch() {
+        return index.search(query, ordinal -> (ordinal & 1) == 0);
+    }
+
+    @Benchmark
+    public AttendanceSearchIndex buildIndex() {
+        AttendanceSearchIndex.Builder builder = new AttendanceSearchIndex.Builder();
+        for (String[] record : records) {
+            builder.add(record);
+        }
+        return builder.build();
+    }
+
+    // The previous per-keystroke lowercase-and-contains scan, for comparison
+    @Benchmark
+    public int lowercaseScan() {
+        String lowerQuery = query.toLowerCase().trim();
+        int count = 0;
+        for (String[] record : records) {
+            if (record[0].toLowerCase().contains(lowerQuery) || record[1].toLowerCase().contains(lowerQuery)
+                    || record[2].toLowerCase().contains(lowerQuery)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.smart_attendance_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one 1:N probe against the identification index; the target is under 1 ms at 500 students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FaceIdentificationBenchmark {
+
+    @Param({"60", "500", "5000"})
+    public int students;
+
+    @Param({"1", "5"})
+    public int topK;
+
+    private FaceIdentificationIndex index;
+    private float[] probe;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(2024);
+        index = new FaceIdentificationIndex(FaceEmbeddingExtractor.EMBEDDING_SIZE, students);
+        float[] embedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        for (int s = 0; s < students; s++) {
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = random.nextFloat();
+            }
+            index.put("ENR" + s, embedding);
+        }
+        probe = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        for (int i = 0; i < probe.length; i++) {
+            probe[i] = random.nextFloat();
+        }
+    }
+
+    @Benchmark
+    public List<FaceIdentificationIndex.Match> identifyProbe() {
+        return index.topK(probe, topK);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.smart_attendance_system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the on-device matching math behind FaceRecognitionUtils for a section of N candidates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FaceMatchingBenchmark {
+
+    // Typical size of a compressed face JPEG as stored in face_data
+    private static final int FACE_PAYLOAD_BYTES = 24 * 1024;
+    // Distinct payloads cycled through so 10,000 candidates don't need 10,000 buffers
+    private static final int PAYLOAD_POOL_SIZE = 16;
+
+    // Matches android.util.Base64.DEFAULT: 76-char lines separated by '\n'
+    private static final Base64.Encoder ENCODER =
+            Base64.getMimeEncoder(76, "\n".getBytes(StandardCharsets.US_ASCII));
+    private static final Base64.Decoder DECODER = Base64.getMimeDecoder();
+
+    @Param({"1", "100", "10000"})
+    public int candidates;
+
+    private final FaceEmbeddingExtractor extractor = new FaceEmbeddingExtractor();
+    private int[] probePixels;
+    private float[] rawEmbedding;
+    private float[] workEmbedding;
+    private float[] probeEmbedding;
+    private float[][] candidateEmbeddings;
+    private byte[][] facePayloads;
+    private String[] encodedPayloads;
+    private String[] storedEmbeddings;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1605);
+        int size = FaceEmbeddingExtractor.INPUT_SIZE;
+
+        probePixels = randomPixels(random, size * size);
+        rawEmbedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        for (int i = 0; i < rawEmbedding.length; i++) {
+            rawEmbedding[i] = random.nextFloat();
+        }
+        workEmbedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        probeEmbedding = new float[FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        extractor.extract(probePixels, 0, size, probeEmbedding);
+
+        candidateEmbeddings = new float[candidates][FaceEmbeddingExtractor.EMBEDDING_SIZE];
+        int[] candidatePixels = new int[size * size];
+        for (int c = 0; c < candidates; c++) {
+            for (int i = 0; i < candidatePixels.length; i++) {
+                candidatePixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+            }
+            extractor.extract(candidatePixels, 0, size, candidateEmbeddings[c]);
+        }
+
+        facePayloads = new byte[PAYLOAD_POOL_SIZE][FACE_PAYLOAD_BYTES];
+        encodedPayloads = new String[PAYLOAD_POOL_SIZE];
+        for (int i = 0; i < PAYLOAD_POOL_SIZE; i++) {
+            random.nextBytes(facePayloads[i]);
+            encodedPayloads[i] = ENCODER.encodeToString(facePayloads[i]);
+        }
+
+        storedEmbeddings = new String[PAYLOAD_POOL_SIZE];
+        for (int i = 0; i < PAYLOAD_POOL_SIZE; i++) {
+            storedEmbeddings[i] = FaceEmbeddingCodec.encode(candidateEmbeddings[i % candidates]);
+        }
+    }
+
+    @Benchmark
+    public void extractEmbedding(Blackhole blackhole) {
+        extractor.extract(probePixels, 0, FaceEmbeddingExtractor.INPUT_SIZE, workEmbedding);
+        blackhole.consume(workEmbedding);
+    }
+
+    @Benchmark
+    public void normalizeEmbedding(Blackhole blackhole) {
+        System.arraycopy(rawEmbedding, 0, workEmbedding, 0, rawEmbedding.length);
+        FaceEmbeddingExtractor.normalize(workEmbedding);
+        blackhole.consume(workEmbedding);
+    }
+
+    /**
+     * Score one probe against every candidate, as 1:N matching on the device would
+     */
+    @Benchmark
+    public float cosineSimilarityAllCandidates() {
+        float best = -1.0f;
+        for (float[] candidate : candidateEmbeddings) {
+            float similarity = FaceEmbeddingExtractor.cosineSimilarity(probeEmbedding, candidate);
+            if (similarity > best) {
+                best = similarity;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public float extractAndMatchAllCandidates() {
+        extractor.extract(probePixels, 0, FaceEmbeddingExtractor.INPUT_SIZE, workEmbedding);
+        float best = -1.0f;
+        for (float[] candidate : candidateEmbeddings) {
+            float similarity = FaceEmbeddingExtractor.cosineSimilarity(workEmbedding, candidate);
+            if (similarity > best) {
+                best = similarity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Encode one payload per candidate, as uploading each registration would
+     */
+    @Benchmark
+    public void encodeFacePayloads(Blackhole blackhole) {
+        for (int c = 0; c < candidates; c++) {
+            blackhole.consume(ENCODER.encodeToString(facePayloads[c % PAYLOAD_POOL_SIZE]));
+        }
+    }
+
+    /**
+     * Decode one stored payload per candidate, as downloading a section's face_data would
+     */
+    @Benchmark
+    public void decodeFacePayloads(Blackhole blackhole) {
+        for (int c = 0; c < candidates; c++) {
+            blackhole.consume(DECODER.decode(encodedPayloads[c % PAYLOAD_POOL_SIZE]));
+        }
+    }
+
+    /**
+     * Decode one stored face_embedding per candidate, the replacement for decodeFacePayloads
+     */
+    @Benchmark
+    public void decodeStoredEmbeddings(Blackhole blackhole) {
+        for (int c = 0; c < candidates; c++) {
+            FaceEmbeddingCodec.decode(storedEmbeddings[c % PAYLOAD_POOL_SIZE], workEmbedding);
+            blackhole.consume(workEmbedding);
+        }
+    }
+
+    private static int[] randomPixels(Random random, int count) {
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
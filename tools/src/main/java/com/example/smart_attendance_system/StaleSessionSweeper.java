@@ -0,0 +1,285 @@
+package com.example.smart_attendance_system;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command-line sweep of stale sessions over the Realtime Database REST API.
+ * Uses the same plan as the app: query active sessions, expire those created before the cutoff
+ * with their absent entries and counts in one multi-path PATCH.
+ *
+ * With --backfill-class-keys it instead writes class_key on sessions created before it existed,
+ * derived from their branch/year/section, and the class_rosters index of every student.
+ * That reads every session and student once, so run it once.
+ *
+ * Usage: StaleSessionSweeper --url <database url> [--ns <namespace>] [--token <token>]
+ *                            [--max-age-hours <hours>] [--backfill-class-keys] [--dry-run]
+ *
+ * For the emulator use --url http://127.0.0.1:9000 --ns <project>-default-rtdb --token owner
+ */
+public class StaleSessionSweeper {
+
+    private final String baseUrl;
+    private final String namespace;
+    private final String token;
+
+    StaleSessionSweeper(String baseUrl, String namespace, String token) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.namespace = namespace;
+        this.token = token;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String url = null;
+        String namespace = null;
+        String token = null;
+        long maxAgeMillis = Constants.SESSION_STALE_AFTER;
+        boolean dryRun = false;
+        boolean backfillClassKeys = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = value(args, i++);
+                    break;
+                case "--ns":
+                    namespace = value(args, i++);
+                    break;
+                case "--token":
+                    token = value(args, i++);
+                    break;
+                case "--max-age-hours":
+                    maxAgeMillis = TimeUnit.HOURS.toMillis(parseHours(value(args, i++)));
+                    break;
+                case "--backfill-class-keys":
+                    backfillClassKeys = true;
+                    break;
+                case "--dry-run":
+                    dryRun = true;
+                    break;
+                default:
+                    usage("Unknown argument: " + args[i]);
+            }
+        }
+        if (url == null) {
+            usage("--url is required");
+        }
+
+        StaleSessionSweeper sweeper = new StaleSessionSweeper(url, namespace, token);
+        if (backfillClassKeys) {
+            sweeper.backfillClassKeys(dryRun);
+            sweeper.backfillClassRosters(dryRun);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, String>> stale = sweeper.findStaleSessions(now - maxAgeMillis);
+
+        System.out.println("Found " + stale.size() + " stale active sessions");
+        for (Map.Entry<String, Map<String, String>> session : stale.entrySet()) {
+            System.out.println("  " + session.getKey() + " (" + session.getValue().size() + " on roster)");
+        }
+
+        if (!dryRun && !stale.isEmpty()) {
+            sweeper.patchRoot(StaleSessionSweep.buildExpiryUpdates(stale, now));
+            System.out.println("Expired " + stale.size() + " sessions");
+        }
+    }
+
+    // Roster statuses of the stale sessions, keyed by session id
+    Map<String, Map<String, String>> findStaleSessions(long cutoff) throws IOException {
+        String query = "orderBy=" + encode("\"" + Constants.SESSION_STATUS + "\"")
+                + "&equalTo=" + encode("\"" + Constants.SESSION_ACTIVE + "\"");
+        JsonElement response = JsonParser.parseString(
+                request("GET", "/" + Constants.ATTENDANCE_REPORT_REF + ".json", query, null));
+
+        Map<String, Long> createdAt = new HashMap<>();
+        Map<String, Map<String, String>> rosters = new HashMap<>();
+        if (response.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> session : response.getAsJsonObject().entrySet()) {
+                JsonObject fields = session.getValue().isJsonObject() ? session.getValue().getAsJsonObject() : null;
+                JsonElement created = fields != null ? fields.get(Constants.SESSION_CREATED_AT) : null;
+                createdAt.put(session.getKey(),
+                        created != null && created.isJsonPrimitive() ? created.getAsLong() : null);
+
+                Map<String, String> roster = new HashMap<>();
+                JsonElement rosterElement = fields != null ? fields.get(Constants.SESSION_ROSTER) : null;
+                if (rosterElement != null && rosterElement.isJsonObject()) {
+                    for (Map.Entry<String, JsonElement> entry : rosterElement.getAsJsonObject().entrySet()) {
+                        roster.put(entry.getKey(), entry.getValue().isJsonObject()
+                                ? stringField(entry.getValue().getAsJsonObject(), Constants.ROSTER_STATUS) : null);
+                    }
+                }
+                rosters.put(session.getKey(), roster);
+            }
+        }
+
+        Map<String, Map<String, String>> stale = new HashMap<>();
+        for (String sessionId : StaleSessionSweep.findStale(createdAt, cutoff)) {
+            stale.put(sessionId, rosters.get(sessionId));
+        }
+        return stale;
+    }
+
+    void backfillClassKeys(boolean dryRun) throws IOException {
+        JsonElement response = JsonParser.parseString(
+                request("GET", "/" + Constants.ATTENDANCE_REPORT_REF + ".json", null, null));
+
+        Map<String, ClassKeyBackfill.SessionFields> sessions = new HashMap<>();
+        if (response.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> session : response.getAsJsonObject().entrySet()) {
+                if (!session.getValue().isJsonObject()) {
+                    continue;
+                }
+                JsonObject fields = session.getValue().getAsJsonObject();
+                sessions.put(session.getKey(), new ClassKeyBackfill.SessionFields(
+                        stringField(fields, Constants.SESSION_BRANCH), stringField(fields, Constants.SESSION_YEAR),
+                        stringField(fields, Constants.SESSION_SECTION), stringField(fields, Constants.SESSION_CLASS_KEY)));
+            }
+        }
+
+        Map<String, Object> updates = ClassKeyBackfill.buildSessionUpdates(sessions);
+        System.out.println("Found " + updates.size() + " of " + sessions.size() + " sessions without class_key");
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            System.out.println("  " + update.getKey() + " = " + update.getValue());
+        }
+
+        if (!dryRun && !updates.isEmpty()) {
+            patchRoot(updates);
+            System.out.println("Backfilled class_key on " + updates.size() + " sessions");
+        }
+    }
+
+    void backfillClassRosters(boolean dryRun) throws IOException {
+        JsonElement response = JsonParser.parseString(
+                request("GET", "/" + Constants.STUDENTS_REF + ".json", null, null));
+
+        Map<String, ClassKeyBackfill.StudentFields> students = new HashMap<>();
+        if (response.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> student : response.getAsJsonObject().entrySet()) {
+                if (!student.getValue().isJsonObject()) {
+                    continue;
+                }
+                JsonObject fields = student.getValue().getAsJsonObject();
+                students.put(student.getKey(), new ClassKeyBackfill.StudentFields(
+                        stringField(fields, Constants.STUDENT_NAME), stringField(fields, Constants.STUDENT_EMAIL),
+                        stringField(fields, Constants.STUDENT_BRANCH), stringField(fields, Constants.STUDENT_YEAR),
+                        stringField(fields, Constants.STUDENT_SECTION)));
+            }
+        }
+
+        Map<String, Object> updates = ClassKeyBackfill.buildClassRosterUpdates(students);
+        System.out.println("Indexing " + updates.size() / 2 + " of " + students.size() + " students in " + Constants.CLASS_ROSTERS_REF);
+
+        if (!dryRun && !updates.isEmpty()) {
+            patchRoot(updates);
+            System.out.println("Backfilled " + Constants.CLASS_ROSTERS_REF + " for " + updates.size() / 2 + " students");
+        }
+    }
+
+    private static String stringField(JsonObject fields, String name) {
+        JsonElement value = fields.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    void patchRoot(Map<String, Object> updates) throws IOException {
+        request("PATCH", "/.json", null, new Gson().toJson(updates));
+    }
+
+    private String request(String method, String path, String query, String body) throws IOException {
+        StringBuilder url = new StringBuilder(baseUrl).append(path).append('?');
+        if (query != null) {
+            url.append(query).append('&');
+        }
+        if (namespace != null) {
+            url.append("ns=").append(encode(namespace));
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url.toString()).openConnection();
+        try {
+            // HttpURLConnection has no PATCH; the REST API honours the override header
+            connection.setRequestMethod("PATCH".equals(method) ? "POST" : method);
+            if ("PATCH".equals(method)) {
+                connection.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+            }
+            if (token != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + token);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String response = in != null ? readFully(in) : "";
+            if (status >= 400) {
+                throw new IOException(method + " " + path + " failed with HTTP " + status + ": " + response);
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    // Value following the flag at index i
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            usage(args[i] + " needs a value");
+        }
+        return args[i + 1];
+    }
+
+    private static long parseHours(String hours) {
+        try {
+            long parsed = Long.parseLong(hours);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        usage("--max-age-hours must be a positive whole number, got: " + hours);
+        return 0;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: StaleSessionSweeper --url <database url> [--ns <namespace>] [--token <token>]"
+                + " [--max-age-hours <hours>] [--backfill-class-keys] [--dry-run]");
+        System.exit(2);
+    }
+}